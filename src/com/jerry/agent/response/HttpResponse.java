@@ -1,5 +1,10 @@
 package com.jerry.agent.response;
 
+import com.jerry.utils.FileRegion;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
@@ -32,6 +37,12 @@ public final class HttpResponse extends SimpleResponse {
      */
     private byte[] body;
 
+    /**
+     * 文件形式的响应资源
+     * 与{@link #body}互斥
+     */
+    private FileRegion region;
+
     /**
      * 设置响应行协议版本
      *
@@ -81,7 +92,7 @@ public final class HttpResponse extends SimpleResponse {
      * @return 响应行
      */
     public String responseLine() {
-        return String.format("%s %s %s", protocol, code, reason);
+        return protocol + " " + code + " " + reason;
     }
 
     /**
@@ -125,10 +136,10 @@ public final class HttpResponse extends SimpleResponse {
      */
     public String headers() {
         StringBuilder headers = new StringBuilder();
-        for (String key : this.headers.keySet()) {
-            headers.append(String.format("%s: %s\r\n", key, this.headers.get(key)));
+        appendHeaders(headers);
+        if (headers.length() > 0) {
+            headers.delete(headers.length() - 2, headers.length());
         }
-        headers.delete(headers.length() - 2, headers.length());
         return headers.toString();
     }
 
@@ -302,6 +313,20 @@ public final class HttpResponse extends SimpleResponse {
      */
     public HttpResponse body(byte[] body) {
         this.body = body;
+        this.region = null;
+        return this;
+    }
+
+    /**
+     * 设置文件形式的响应资源
+     * 文件内容不读入内存，由连接器直接写入通道
+     *
+     * @param region 文件区域
+     * @return 当前对象实例(用以支持链式调用)
+     */
+    public HttpResponse body(FileRegion region) {
+        this.region = region;
+        this.body = null;
         return this;
     }
 
@@ -336,9 +361,26 @@ public final class HttpResponse extends SimpleResponse {
         return this;
     }
 
+    @Override
+    public FileRegion region() {
+        return region;
+    }
+
+    /**
+     * 文件形式的响应资源会被读入内存
+     * 连接器应使用{@link #toBuffers()}和{@link #region()}
+     */
     @Override
     public byte[] toBytes() {
-        byte[] bytes = (responseLine() + "\r\n" + headers() + "\r\n\r\n").getBytes();
+        byte[] bytes = head();
+        byte[] body = this.body;
+        if (region != null) {
+            try {
+                body = region.toBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
         if (body != null) {
             byte[] result = new byte[bytes.length + body.length];
             System.arraycopy(bytes, 0, result, 0, bytes.length);
@@ -348,6 +390,41 @@ public final class HttpResponse extends SimpleResponse {
         return bytes;
     }
 
+    /**
+     * 响应行和响应头与响应资源分别写入，响应资源不再拷贝
+     */
+    @Override
+    public ByteBuffer[] toBuffers() {
+        ByteBuffer head = ByteBuffer.wrap(head());
+        if (body == null || body.length == 0) {
+            return new ByteBuffer[]{head};
+        }
+        return new ByteBuffer[]{head, ByteBuffer.wrap(body)};
+    }
+
+    /**
+     * @return 响应行和响应头字节流(包含结尾空行)
+     */
+    private byte[] head() {
+        StringBuilder head = new StringBuilder(256);
+        head.append(protocol).append(' ')
+                .append(code).append(' ')
+                .append(reason).append("\r\n");
+        appendHeaders(head);
+        head.append("\r\n");
+        return head.toString().getBytes();
+    }
+
+    /**
+     * 逐行追加响应头字段
+     */
+    private void appendHeaders(StringBuilder builder) {
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            builder.append(entry.getKey()).append(": ")
+                    .append(entry.getValue()).append("\r\n");
+        }
+    }
+
     @Override
     public int hashCode() {
         return headers.hashCode() ^ Arrays.hashCode(body) ^ 3;
@@ -1,5 +1,9 @@
 package com.jerry.agent.response;
 
+import com.jerry.utils.FileRegion;
+
+import java.nio.ByteBuffer;
+
 /**
  * Socket会话响应抽象接口
  */
@@ -10,4 +14,22 @@ public interface Response {
      * 该字节流随后一般被写入到网络文件描述符中
      */
     byte[] toBytes();
+
+    /**
+     * @return 响应内容字节缓冲区数组
+     * 连接器以聚集写入的方式依次写入这些字节缓冲区
+     * 实现类可以借此避免将各部分拼接成一个字节流
+     */
+    default ByteBuffer[] toBuffers() {
+        return new ByteBuffer[]{ByteBuffer.wrap(toBytes())};
+    }
+
+    /**
+     * @return 紧随{@link #toBuffers()}之后写入的文件区域
+     * 返回{@code null}表示响应内容已全部包含在字节缓冲区中
+     * 连接器负责在写完或放弃写入后关闭该文件区域
+     */
+    default FileRegion region() {
+        return null;
+    }
 }
@@ -22,13 +22,17 @@ public final class LogValve extends SimpleValve implements LogAble {
 
     @Override
     void doProcess(HttpRequest request, HttpResponse response) {
-        if (response.state() == State.COMPLETE) {
+        if (response.state() != State.COMPLETE) {
+            logger.warning("Request processing " +
+                    "not completed, please check valve settings.");
+        } else if (request.failedParsing()) {
+            //解析失败的请求没有请求行
+            logger.info(String.format("%s : %s %s", request.addr(),
+                    response.code(), response.reason()));
+        } else {
             logger.info(String.format("%s : %s %s %s %s %s", request.addr(),
                     request.method(), request.url(), request.protocol(),
                     response.code(), response.reason()));
-        } else {
-            logger.warning("Request processing " +
-                    "not completed, please check valve settings.");
         }
     }
 
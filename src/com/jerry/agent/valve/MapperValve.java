@@ -9,10 +9,13 @@ import com.jerry.extend.Lifecycle;
 import com.jerry.logger.LogAble;
 import com.jerry.logger.LogStyle;
 import com.jerry.logger.LogUtils;
+import com.jerry.net.request.HttpHeader;
 import com.jerry.net.request.HttpRequest;
+import com.jerry.utils.FileRegion;
 import com.jerry.utils.Resources;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -32,6 +35,12 @@ public final class MapperValve extends SimpleValve implements Lifecycle, LogAble
 
     private static boolean logSetup = false;
 
+    /**
+     * 以文件区域响应的静态资源大小阀值
+     * 超过该大小的文件不读入内存，不计算MD5也不做gzip压缩
+     */
+    private static final long REGION_THRESHOLD = 1024 * 64;  //default 64K
+
     /**
      * 请求映射表
      */
@@ -226,11 +235,17 @@ public final class MapperValve extends SimpleValve implements Lifecycle, LogAble
 
     /**
      * 处理静态资源请求
+     * <p>
+     * 不超过{@link #REGION_THRESHOLD}的文件读入内存，以MD5作为响应资源标识，
+     * 客户端支持时使用gzip编码
+     * 超过该大小的文件以文件区域响应，从不使用gzip编码，
+     * 响应资源标识为{@code 文件大小-最后修改时间}(十六进制)而非MD5，
+     * 因此同一文件在阀值两侧的资源标识格式不同，内容未变但修改时间变化时缓存也会失效
      */
     private void requestStaticResources(HttpRequest request, HttpResponse response) {
         //检查静态资源请求的合法性
         //直接使用静态资源URL请求静态资源视为不合法
-        String referer = request.header("Referer");
+        String referer = request.header(HttpHeader.REFERER);
         if (referer == null) {
             handleException(request, response, State.NOT_FOUND);
             return;
@@ -241,17 +256,53 @@ public final class MapperValve extends SimpleValve implements Lifecycle, LogAble
             handleException(request, response, State.NOT_FOUND);
             return;
         }
+        //获取静态资源文件后缀
+        //只截取最后一次出现的小数点后的字符
+        String fileType = path.substring(path.lastIndexOf(".") + 1);
+        String contentType = fileType.equals(path)
+                ? "application/octet-stream" : contentTypes.get(fileType);
+        if (file.length() > REGION_THRESHOLD) {
+            fillResponse(request, response, file, contentType);
+            return;
+        }
         byte[] fileBytes = resources.readFile(file);
         if (fileBytes == null) {
             logger.warning(String.format(request.addr() + " : Failed to read file %s.", path));
             handleException(request, response, State.INTERNAL_SERVER_ERROR);
             return;
         }
-        //获取静态资源文件后缀
-        //只截取最后一次出现的小数点后的字符
-        String fileType = path.substring(path.lastIndexOf(".") + 1);
-        fillResponse(request, response, fileBytes, State.READY,
-                fileType.equals(path) ? "application/octet-stream" : contentTypes.get(fileType));
+        fillResponse(request, response, fileBytes, State.READY, contentType);
+    }
+
+    /**
+     * 以文件区域填充响应对象
+     * 文件内容由连接器直接写入通道，不做gzip编码
+     * 响应资源标识由文件大小和最后修改时间生成，格式为{@code size-mtime}，不计算MD5
+     */
+    private void fillResponse(HttpRequest request, HttpResponse response,
+                              File file, String contentType) {
+        String eTag = Long.toHexString(file.length()) + "-"
+                + Long.toHexString(file.lastModified());
+        if (eTag.equals(request.eTag())) {
+            response.useCache(eTag)
+                    .state(State.COMPLETE);
+            return;
+        }
+        FileRegion region;
+        try {
+            region = FileRegion.open(file);
+        } catch (IOException e) {
+            logger.warning(String.format("%s : Failed to open file %s. %s",
+                    request.addr(), file.getPath(), e.getMessage()));
+            handleException(request, response, State.INTERNAL_SERVER_ERROR);
+            return;
+        }
+        response.body(region)
+                .contentLength(String.valueOf(region.remaining()))
+                .eTag(eTag)
+                .status(State.READY.code(), State.READY.reason())
+                .contentType(contentType)
+                .state(State.COMPLETE);
     }
 
     /**
@@ -359,7 +410,7 @@ public final class MapperValve extends SimpleValve implements Lifecycle, LogAble
         }
         //对支持gzip编码的客户端的响应数据使用gzip编码
         boolean isGzip = false;
-        String acceptEncoding = request.header("Accept-Encoding");
+        String acceptEncoding = request.header(HttpHeader.ACCEPT_ENCODING);
         if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
             byte[] gzipBytes = resources.gzip(bytes);
             if (gzipBytes != null) {
@@ -0,0 +1,16 @@
+package com.jerry.extend;
+
+/**
+ * 接收缓冲区设置抽象接口
+ */
+public interface BufferAble {
+
+    /**
+     * 设置单次从通道读取的字节数范围
+     * 实际读取的字节数在范围内根据最近的读取量自适应调整
+     *
+     * @param min 单次读取的最小字节数
+     * @param max 单次读取的最大字节数
+     */
+    void setReceiveBuffer(int min, int max);
+}
@@ -0,0 +1,193 @@
+package com.jerry.net.connector;
+
+import com.jerry.utils.ChannelUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.logging.Logger;
+
+/**
+ * Acceptor线程
+ * 监听指定端口的连接请求并将建立的Socket会话通道分派给I/O线程
+ */
+final class Acceptor extends Thread {
+
+    /**
+     * 所属连接器的日志记录器
+     */
+    private final Logger logger;
+
+    /**
+     * 所属连接器
+     */
+    private final Connector connector;
+
+    /**
+     * Socket会话通道分派器
+     */
+    private final Dispatcher dispatcher;
+
+    /**
+     * 通道选择器
+     */
+    private final Selector selector;
+
+    /**
+     * 连接监听通道
+     */
+    private final ServerSocketChannel channel;
+
+    /**
+     * 线程控制变量
+     */
+    private volatile boolean running = true;
+
+    Acceptor(String name, Logger logger, Connector connector,
+             Dispatcher dispatcher) throws IOException {
+        super(name);
+        this.logger = logger;
+        this.connector = connector;
+        this.dispatcher = dispatcher;
+        selector = Selector.open();
+        channel = ServerSocketChannel.open();
+    }
+
+    /**
+     * 创建监听同一端口的一组Acceptor线程
+     * 数量大于1时各Acceptor线程的监听通道通过SO_REUSEPORT绑定同一端口
+     * 当前JVM或操作系统不支持SO_REUSEPORT时退回单个Acceptor线程
+     *
+     * @param logger      所属连接器的日志记录器
+     * @param connector   所属连接器
+     * @param dispatchers 按Acceptor线程序号获取Socket会话通道分派器
+     * @return Acceptor线程组
+     * @throws IOException 打开监听通道失败
+     */
+    static List<Acceptor> open(Logger logger, Connector connector,
+                               IntFunction<Dispatcher> dispatchers) throws IOException {
+        int count = connector.acceptors();
+        List<Acceptor> acceptors = new ArrayList<>(count);
+        if (count == 1) {
+            acceptors.add(new Acceptor("Acceptor", logger, connector, dispatchers.apply(0)));
+            return acceptors;
+        }
+        for (int i = 0; i < count; i++) {
+            Acceptor acceptor = new Acceptor("Acceptor-" + i,
+                    logger, connector, dispatchers.apply(i));
+            if (!acceptor.reusePort()) {
+                logger.warning("SO_REUSEPORT is not supported " +
+                        "by the current platform, fall back to a single acceptor.");
+                acceptor.close();
+                for (Acceptor opened : acceptors) {
+                    opened.close();
+                }
+                acceptors.clear();
+                acceptors.add(new Acceptor("Acceptor", logger, connector, dispatchers.apply(0)));
+                break;
+            }
+            acceptors.add(acceptor);
+        }
+        return acceptors;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                int state = selector.select();
+                if (state == 0) {
+                    continue;
+                }
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (key.isValid() && key.isAcceptable()) {
+                        doAccept(key);
+                    }
+                }
+            } catch (IOException e) {
+                logger.severe(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 为监听通道启用端口复用
+     * 必须在注册连接请求监听之前调用
+     *
+     * @return 是否启用成功
+     * @throws IOException 设置通道选项失败
+     */
+    boolean reusePort() throws IOException {
+        return ChannelUtils.reusePort(channel);
+    }
+
+    /**
+     * 为指定端口注册连接请求监听
+     *
+     * @param port 监听端口
+     * @throws IOException 绑定端口失败
+     */
+    void register(int port) throws IOException {
+        channel.configureBlocking(false);
+        channel.socket().bind(new InetSocketAddress(port), connector.backlog());
+        channel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * 停止监听连接请求
+     */
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * 关闭尚未启动的Acceptor线程的监听通道
+     */
+    private void close() throws IOException {
+        channel.close();
+        selector.close();
+    }
+
+    /**
+     * 处理到达的连接请求
+     */
+    private void doAccept(SelectionKey selectionKey) throws IOException {
+        ServerSocketChannel channel = (ServerSocketChannel) selectionKey.channel();
+        SocketChannel socketChannel = channel.accept();
+        if (socketChannel == null) {
+            logger.warning("Failed to get socket channel.");
+            return;
+        }
+        socketChannel.configureBlocking(false);
+        Socket socket = socketChannel.socket();
+        socket.setTcpNoDelay(!connector.isUseNagle());
+        socket.setKeepAlive(connector.isKeepAlive());
+        dispatcher.dispatch(socketChannel);
+    }
+
+    /**
+     * Socket会话通道分派器
+     */
+    interface Dispatcher {
+
+        /**
+         * 将Socket会话通道分派给I/O线程
+         *
+         * @param channel Socket会话通道
+         * @throws IOException 注册通道失败
+         */
+        void dispatch(SocketChannel channel) throws IOException;
+    }
+}
@@ -0,0 +1,19 @@
+package com.jerry.net.connector;
+
+import java.util.List;
+
+/**
+ * 新连接分派策略抽象接口
+ * 决定新建立的Socket会话通道交由哪个I/O线程处理
+ */
+public interface Balancer {
+
+    /**
+     * 从候选I/O线程中选择一个线程
+     * 可能被多个Acceptor线程并发调用
+     *
+     * @param candidates 候选I/O线程的负载
+     * @return 选中线程在候选列表中的索引
+     */
+    int select(List<? extends Load> candidates);
+}
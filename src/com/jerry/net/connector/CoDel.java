@@ -0,0 +1,80 @@
+package com.jerry.net.connector;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于排队延迟的准入控制
+ * 参考CoDel算法，以请求等待处理线程的时长而非队列长度判断是否过载
+ * <p>
+ * 每个统计周期记录最小排队延迟
+ * 周期结束时最小排队延迟仍高于目标延迟，则认为下一周期处于过载状态
+ * 过载状态下丢弃排队延迟超过目标延迟两倍的请求
+ * 最小排队延迟反映的是持续积压而非短暂突发，因此突发流量不会触发丢弃
+ * <p>
+ * 所有处理线程共享同一实例，状态以原子变量维护，判断过程不加锁
+ */
+final class CoDel {
+
+    /**
+     * 目标排队延迟(纳秒)
+     */
+    private final long target;
+
+    /**
+     * 统计周期(纳秒)
+     */
+    private final long interval;
+
+    /**
+     * 当前统计周期的结束时间
+     */
+    private final AtomicLong intervalEnd;
+
+    /**
+     * 当前统计周期内的最小排队延迟
+     */
+    private final AtomicLong minDelay = new AtomicLong(Long.MAX_VALUE);
+
+    /**
+     * 是否处于过载状态
+     */
+    private volatile boolean overloaded = false;
+
+    /**
+     * @param target   目标排队延迟(毫秒)
+     * @param interval 统计周期(毫秒)
+     */
+    CoDel(long target, long interval) {
+        this.target = target * 1000000L;
+        this.interval = interval * 1000000L;
+        this.intervalEnd = new AtomicLong(System.nanoTime() + this.interval);
+    }
+
+    /**
+     * 记录一次排队延迟并判断是否应丢弃该请求
+     * 不加锁，多个处理线程可同时调用
+     *
+     * @param delay 排队延迟(纳秒)
+     * @return 是否应丢弃该请求
+     */
+    boolean drop(long delay) {
+        long now = System.nanoTime();
+        long end = intervalEnd.get();
+        //只有推进周期结束时间成功的线程负责结算上一周期
+        if (now - end > 0 && intervalEnd.compareAndSet(end, now + interval)) {
+            //周期内没有请求或至少有一次请求排队延迟不超过目标延迟则视为未过载
+            //结算期间其他线程记录的延迟可能计入任一周期，不影响判断
+            long min = minDelay.getAndSet(delay);
+            overloaded = min != Long.MAX_VALUE && min > target;
+            return false;
+        }
+        //最小值只在变小时写入，稳定状态下不产生写竞争
+        long min;
+        while (delay < (min = minDelay.get())) {
+            if (minDelay.compareAndSet(min, delay)) {
+                break;
+            }
+        }
+        return overloaded && delay > target * 2;
+    }
+}
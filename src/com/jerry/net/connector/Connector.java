@@ -1,10 +1,13 @@
 package com.jerry.net.connector;
 
 import com.jerry.agent.processor.Processor;
+import com.jerry.extend.BufferAble;
 import com.jerry.net.producer.ProducerFactory;
 import com.jerry.extend.Lifecycle;
 import com.jerry.utils.Platform;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * 连接器抽象实现
  * 本项目以NIO技术实现此抽象类
@@ -30,6 +33,51 @@ public abstract class Connector implements Lifecycle {
      */
     protected static final int DEFAULT_PORT = 8090;
 
+    /**
+     * 默认单次读取的最小字节数
+     */
+    protected static final int DEFAULT_MIN_RECEIVE = 64;
+
+    /**
+     * 默认单次读取的最大字节数
+     */
+    protected static final int DEFAULT_MAX_RECEIVE = 1024 * 64;
+
+    /**
+     * 默认单个连接未写入响应的字节数上限
+     */
+    protected static final int DEFAULT_MAX_OUTBOUND = 1024 * 1024;
+
+    /**
+     * 默认写入超时时间(毫秒)
+     */
+    protected static final long DEFAULT_WRITE_TIMEOUT = 30000;
+
+    /**
+     * 默认空闲超时时间(毫秒)
+     */
+    protected static final long DEFAULT_IDLE_TIMEOUT = 60000;
+
+    /**
+     * 默认请求头接收超时时间(毫秒)
+     */
+    protected static final long DEFAULT_HEADER_TIMEOUT = 20000;
+
+    /**
+     * 默认请求体读取超时时间(毫秒)
+     */
+    protected static final long DEFAULT_BODY_TIMEOUT = 60000;
+
+    /**
+     * 超时时间轮的时间刻度(毫秒)
+     */
+    static final long TIMER_TICK = 1000;
+
+    /**
+     * 超时时间轮的槽数量
+     */
+    static final int TIMER_WHEEL_SIZE = 512;
+
     /**
      * 请求生成器工厂
      */
@@ -60,6 +108,84 @@ public abstract class Connector implements Lifecycle {
      */
     protected int maxThreads;
 
+    /**
+     * Acceptor线程数量
+     */
+    protected int acceptors;
+
+    /**
+     * 新连接分派策略
+     */
+    protected Balancer balancer = new RoundRobinBalancer();
+
+    /**
+     * 是否使用虚拟线程处理请求
+     */
+    protected boolean virtualThreads = false;
+
+    /**
+     * 待处理请求数量上限
+     * 为{@code 0}表示不限制
+     */
+    protected int queueCapacity;
+
+    /**
+     * 过载处理策略
+     */
+    protected OverloadPolicy overloadPolicy = OverloadPolicy.SHED;
+
+    /**
+     * 目标排队延迟(毫秒)
+     * 为{@code 0}表示不启用基于排队延迟的准入控制
+     */
+    protected long codelTarget;
+
+    /**
+     * 排队延迟统计周期(毫秒)
+     */
+    protected long codelInterval;
+
+    /**
+     * 单次读取的最小字节数
+     */
+    protected int minReceive;
+
+    /**
+     * 单次读取的最大字节数
+     */
+    protected int maxReceive;
+
+    /**
+     * 单个连接未写入响应的字节数上限
+     */
+    protected int maxOutbound;
+
+    /**
+     * 全部连接未写入响应的字节数上限
+     * 为{@code 0}表示不限制
+     */
+    protected long maxTotalOutbound;
+
+    /**
+     * 写入超时时间(毫秒)
+     */
+    protected long writeTimeout;
+
+    /**
+     * 空闲超时时间(毫秒)
+     */
+    protected long idleTimeout;
+
+    /**
+     * 请求头接收超时时间(毫秒)
+     */
+    protected long headerTimeout;
+
+    /**
+     * 请求体读取超时时间(毫秒)
+     */
+    protected long bodyTimeout;
+
     /**
      * 监听端口
      */
@@ -161,6 +287,297 @@ public abstract class Connector implements Lifecycle {
         return maxThreads == 0 ? DEFAULT_MAX_THREADS : maxThreads;
     }
 
+    /**
+     * 设置Acceptor线程数量
+     * 数量大于1时每个Acceptor线程通过SO_REUSEPORT绑定同一端口并独占一组I/O线程
+     * 由内核在各监听通道之间分配新连接
+     * 当前JVM或操作系统不支持SO_REUSEPORT时退回单个Acceptor线程
+     *
+     * @param acceptors Acceptor线程数量
+     */
+    public void acceptors(int acceptors) {
+        this.acceptors = acceptors;
+    }
+
+    /**
+     * @return Acceptor线程数量
+     */
+    public int acceptors() {
+        return acceptors <= 0 ? 1 : Math.min(acceptors, maxThreads());
+    }
+
+    /**
+     * 设置新连接分派策略
+     * 默认以轮询方式分派
+     *
+     * @param balancer 新连接分派策略
+     */
+    public void balancer(Balancer balancer) {
+        this.balancer = balancer;
+    }
+
+    /**
+     * @return 新连接分派策略
+     */
+    public Balancer balancer() {
+        return balancer;
+    }
+
+    /**
+     * 设置是否使用虚拟线程处理请求
+     * 启用后每个请求处理任务都运行在独立的虚拟线程上
+     * 阻塞的请求处理不再占用有限的处理线程
+     * 当前JVM不支持虚拟线程时退回使用处理线程组
+     *
+     * @param virtualThreads 是否使用虚拟线程处理请求
+     */
+    public void virtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * @return 是否使用虚拟线程处理请求
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * 设置待处理请求数量上限
+     * 等待处理线程的请求数量达到上限时按过载处理策略处理新到达的请求
+     * 事件循环连接器在EventLoop线程内直接处理请求，不受该设置影响
+     *
+     * @param queueCapacity 待处理请求数量上限
+     */
+    public void queueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * @return 待处理请求数量上限
+     */
+    public int queueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * 设置过载处理策略
+     * 使用{@link OverloadPolicy#BLOCK}时过载会阻塞整个Reader线程，
+     * 同一Reader线程上的全部会话都会停顿
+     * 事件循环连接器在EventLoop线程内直接处理请求，不受该设置影响
+     *
+     * @param overloadPolicy 过载处理策略
+     */
+    public void overloadPolicy(OverloadPolicy overloadPolicy) {
+        this.overloadPolicy = overloadPolicy;
+    }
+
+    /**
+     * @return 过载处理策略
+     */
+    public OverloadPolicy overloadPolicy() {
+        return overloadPolicy == null ? OverloadPolicy.SHED : overloadPolicy;
+    }
+
+    /**
+     * 设置基于排队延迟的准入控制参数
+     * 统计周期内请求等待处理线程的最小时长持续高于目标延迟时
+     * 丢弃排队过久的请求并返回过载响应
+     * 事件循环连接器在EventLoop线程内直接处理请求，不受该设置影响
+     *
+     * @param target   目标排队延迟(毫秒)，为{@code 0}表示不启用
+     * @param interval 统计周期(毫秒)，启用时必须大于目标排队延迟
+     */
+    public void codel(long target, long interval) {
+        if (target < 0 || target > 0 && (interval <= 0 || target >= interval)) {
+            throw new IllegalArgumentException(String.format("target: %d; " +
+                    "interval: %d (expected target == 0 || 0 < target < interval)", target, interval));
+        }
+        this.codelTarget = target;
+        this.codelInterval = interval;
+    }
+
+    /**
+     * @return 目标排队延迟(毫秒)
+     */
+    public long codelTarget() {
+        return codelTarget;
+    }
+
+    /**
+     * @return 排队延迟统计周期(毫秒)
+     */
+    public long codelInterval() {
+        return codelInterval;
+    }
+
+    /**
+     * 设置单次从通道读取的字节数范围
+     * 每个连接在范围内根据最近的读取量自适应调整单次读取的字节数
+     * 仅对实现了{@link BufferAble}接口的请求生成器工厂有效
+     *
+     * @param min 单次读取的最小字节数
+     * @param max 单次读取的最大字节数
+     */
+    public void receiveBuffer(int min, int max) {
+        if (min <= 0 || max < min) {
+            throw new IllegalArgumentException(String.format("min: %d; " +
+                    "max: %d (expected 0 < min <= max)", min, max));
+        }
+        this.minReceive = min;
+        this.maxReceive = max;
+    }
+
+    /**
+     * @return 单次读取的最小字节数
+     */
+    public int minReceive() {
+        return minReceive == 0 ? DEFAULT_MIN_RECEIVE : minReceive;
+    }
+
+    /**
+     * @return 单次读取的最大字节数
+     */
+    public int maxReceive() {
+        return maxReceive == 0 ? DEFAULT_MAX_RECEIVE : maxReceive;
+    }
+
+    /**
+     * 设置未写入响应的字节数上限
+     * 连接的积压超过上限时暂停处理和读取该连接的请求，积压减半后恢复
+     * 全部连接的积压超过总上限时，积压超过单个连接上限一半的连接同样被暂停
+     *
+     * @param perConnection 单个连接的上限
+     * @param total         全部连接的上限，为{@code 0}表示不限制
+     */
+    public void outboundLimit(int perConnection, long total) {
+        if (perConnection <= 0 || total < 0) {
+            throw new IllegalArgumentException(String.format("perConnection: %d; " +
+                    "total: %d (expected perConnection > 0 && total >= 0)", perConnection, total));
+        }
+        this.maxOutbound = perConnection;
+        this.maxTotalOutbound = total;
+    }
+
+    /**
+     * @return 单个连接未写入响应的字节数上限
+     */
+    public int maxOutbound() {
+        return maxOutbound == 0 ? DEFAULT_MAX_OUTBOUND : maxOutbound;
+    }
+
+    /**
+     * @return 全部连接未写入响应的字节数上限
+     */
+    public long maxTotalOutbound() {
+        return maxTotalOutbound;
+    }
+
+    /**
+     * 设置写入超时时间
+     * 连接有未写入的响应且超过该时间没有任何写入进展时关闭连接
+     *
+     * @param writeTimeout 写入超时时间(毫秒)
+     */
+    public void writeTimeout(long writeTimeout) {
+        if (writeTimeout <= 0) {
+            throw new IllegalArgumentException(String.format("writeTimeout: " +
+                    "%d (expected > 0)", writeTimeout));
+        }
+        this.writeTimeout = writeTimeout;
+    }
+
+    /**
+     * @return 写入超时时间(毫秒)
+     */
+    public long writeTimeout() {
+        return writeTimeout == 0 ? DEFAULT_WRITE_TIMEOUT : writeTimeout;
+    }
+
+    /**
+     * 设置读取超时时间
+     * 空闲超时: 连接没有未完成的请求且超过该时间没有任何读写时关闭连接
+     * 请求头超时: 从请求的第一个字节起超过该时间仍未接收完整请求头时关闭连接
+     * 请求体超时: 读取请求体时超过该时间没有读取到任何字节时关闭连接
+     *
+     * @param idle   空闲超时时间(毫秒)
+     * @param header 请求头接收超时时间(毫秒)
+     * @param body   请求体读取超时时间(毫秒)
+     */
+    public void timeouts(long idle, long header, long body) {
+        if (idle <= 0 || header <= 0 || body <= 0) {
+            throw new IllegalArgumentException(String.format("idle: %d; header: %d; " +
+                    "body: %d; Parameter value error.", idle, header, body));
+        }
+        this.idleTimeout = idle;
+        this.headerTimeout = header;
+        this.bodyTimeout = body;
+    }
+
+    /**
+     * @return 空闲超时时间(毫秒)
+     */
+    public long idleTimeout() {
+        return idleTimeout == 0 ? DEFAULT_IDLE_TIMEOUT : idleTimeout;
+    }
+
+    /**
+     * @return 请求头接收超时时间(毫秒)
+     */
+    public long headerTimeout() {
+        return headerTimeout == 0 ? DEFAULT_HEADER_TIMEOUT : headerTimeout;
+    }
+
+    /**
+     * @return 请求体读取超时时间(毫秒)
+     */
+    public long bodyTimeout() {
+        return bodyTimeout == 0 ? DEFAULT_BODY_TIMEOUT : bodyTimeout;
+    }
+
+    /**
+     * 按会话当前的状态计算下一次检查超时的时间
+     * 有未写入的响应时按写入超时计算；
+     * 服务端正在处理请求或暂停读取时不计入客户端的超时；
+     * 否则按请求的读取进度分别计算请求头、请求体或空闲超时
+     * <p>
+     * 会话状态改变时不重新添加定时器，因此检查间隔不超过最短的超时时间，
+     * 以保证任一状态的超时期限到达前至少检查一次
+     *
+     * @param session 会话
+     * @param now     当前时间(纳秒)
+     * @param paused  是否由服务端暂停读取
+     * @return 下一次检查的时间(纳秒)，不晚于当前时间表示已超时
+     */
+    long deadline(Session session, long now, boolean paused) {
+        long shortest = Math.min(Math.min(writeTimeout(), idleTimeout()),
+                Math.min(headerTimeout(), bodyTimeout()));
+        long recheck = now + TimeUnit.MILLISECONDS.toNanos(shortest);
+        OutboundQueue outbounds = session.outbounds();
+        long deadline;
+        if (!outbounds.isEmpty()) {
+            deadline = outbounds.progressTime() + TimeUnit.MILLISECONDS.toNanos(writeTimeout());
+        } else if (paused || session.busy()) {
+            deadline = recheck;
+        } else {
+            switch (session.producer().readState()) {
+                case HEAD:
+                    deadline = session.requestTime() + TimeUnit.MILLISECONDS.toNanos(headerTimeout());
+                    break;
+                case BODY:
+                    deadline = session.readTime() + TimeUnit.MILLISECONDS.toNanos(bodyTimeout());
+                    break;
+                default:
+                    long active = session.readTime();
+                    if (outbounds.progressTime() - active > 0) {
+                        active = outbounds.progressTime();
+                    }
+                    deadline = active + TimeUnit.MILLISECONDS.toNanos(idleTimeout());
+            }
+        }
+        return deadline - recheck < 0 ? deadline : recheck;
+    }
+
     /**
      * 设置监听端口
      *
@@ -177,12 +594,56 @@ public abstract class Connector implements Lifecycle {
         return port == 0 ? DEFAULT_PORT : port;
     }
 
+    /**
+     * 沿用另一连接器的全部配置
+     * 用于在不同的连接器实现之间切换
+     *
+     * @param connector 另一连接器
+     */
+    public void inherit(Connector connector) {
+        factory = connector.factory;
+        processor = connector.processor;
+        useNagle = connector.useNagle;
+        keepAlive = connector.keepAlive;
+        backlog = connector.backlog;
+        maxThreads = connector.maxThreads;
+        acceptors = connector.acceptors;
+        balancer = connector.balancer;
+        virtualThreads = connector.virtualThreads;
+        queueCapacity = connector.queueCapacity;
+        overloadPolicy = connector.overloadPolicy;
+        codelTarget = connector.codelTarget;
+        codelInterval = connector.codelInterval;
+        minReceive = connector.minReceive;
+        maxReceive = connector.maxReceive;
+        maxOutbound = connector.maxOutbound;
+        maxTotalOutbound = connector.maxTotalOutbound;
+        writeTimeout = connector.writeTimeout;
+        idleTimeout = connector.idleTimeout;
+        headerTimeout = connector.headerTimeout;
+        bodyTimeout = connector.bodyTimeout;
+        port = connector.port;
+    }
+
     @Override
     public String toString() {
         return "Accept on http://" +
                 Platform.address() + ":" + port() + "/\n" +
                 "Backlog    : " + backlog() + "\n" +
                 "MaxThreads : " + maxThreads() + "\n" +
+                "Acceptors  : " + acceptors() + "\n" +
+                "Balancer   : " + balancer.getClass().getSimpleName() + "\n" +
+                "Virtual    : " + isVirtualThreads() + "\n" +
+                "Queue      : " + (queueCapacity() > 0 ?
+                queueCapacity() + " (" + overloadPolicy() + ")" : "unbounded") + "\n" +
+                "CoDel      : " + (codelTarget() > 0 ?
+                codelTarget() + "ms/" + codelInterval() + "ms" : "off") + "\n" +
+                "Receive    : " + minReceive() + "-" + maxReceive() + "\n" +
+                "Outbound   : " + maxOutbound() + "/" + (maxTotalOutbound() > 0 ?
+                maxTotalOutbound() : "unbounded") + "\n" +
+                "WriteTime  : " + writeTimeout() + "ms\n" +
+                "Timeouts   : " + idleTimeout() + "ms/" + headerTimeout() +
+                "ms/" + bodyTimeout() + "ms\n" +
                 "UseNagle   : " + isUseNagle() + "\n" +
                 "KeepAlive  : " + isKeepAlive() + "\n";
     }
@@ -0,0 +1,589 @@
+package com.jerry.net.connector;
+
+import com.jerry.agent.response.Response;
+import com.jerry.extend.BufferAble;
+import com.jerry.extend.CodeAble;
+import com.jerry.extend.Lifecycle;
+import com.jerry.logger.LogAble;
+import com.jerry.logger.LogStyle;
+import com.jerry.logger.LogUtils;
+import com.jerry.net.producer.Producer;
+import com.jerry.net.request.Request;
+import com.jerry.utils.CacheQueue;
+import com.jerry.utils.Platform;
+import com.jerry.utils.TimerWheel;
+
+import java.io.IOException;
+import java.nio.channels.*;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * 连接器事件循环实现
+ * 每个EventLoop线程独占一组Socket会话通道
+ * 在同一线程内完成读取、解析、处理和写入，请求处理过程中没有线程切换
+ * 耗时的请求可以按请求地址移交给卸载线程池处理
+ */
+public final class EventLoopConnector extends Connector implements LogAble, CodeAble {
+
+    private final static Logger logger
+            = Logger.getLogger(EventLoopConnector.class.getSimpleName());
+
+    private static boolean logSetup = false;
+
+    /**
+     * 线程控制变量
+     * 将该变量设为{@code false}可以停止所有的子线程
+     */
+    private volatile boolean running = true;
+
+    /**
+     * 请求生成器缓存队列
+     */
+    private CacheQueue<Producer> cacheQueue = new CacheQueue<>();
+
+    /**
+     * EventLoop线程组
+     */
+    private List<EventLoop> loops = new ArrayList<>();
+
+    /**
+     * 按Acceptor线程划分的EventLoop线程组
+     */
+    private List<Group<EventLoop>> groups;
+
+    /**
+     * 需要卸载处理的请求地址集合
+     */
+    private Set<String> offloads = new HashSet<>();
+
+    /**
+     * 卸载线程池
+     */
+    private ExecutorService offloadExecutor;
+
+    /**
+     * Acceptor线程组
+     */
+    private List<Acceptor> acceptorThreads = new ArrayList<>();
+
+    /**
+     * 全部会话未写入响应的字节数
+     */
+    private AtomicLong outboundBytes = new AtomicLong(0);
+
+    /**
+     * 添加需要卸载处理的请求地址
+     * 对应的请求将在卸载线程池中处理，不会阻塞EventLoop线程
+     *
+     * @param urls 请求地址
+     */
+    public void offload(String... urls) {
+        offloads.addAll(Arrays.asList(urls));
+    }
+
+    /**
+     * @return 需要卸载处理的请求地址集合
+     */
+    public Set<String> offloads() {
+        return offloads;
+    }
+
+    /**
+     * @return 全部会话未写入响应的字节数
+     */
+    public long outboundBytes() {
+        return outboundBytes.get();
+    }
+
+    @Override
+    public boolean start() {
+        if (processor == null || factory == null) {
+            logger.severe("Connector missing required parameters.");
+            return false;
+        }
+        if (factory instanceof BufferAble) {
+            ((BufferAble) factory).setReceiveBuffer(minReceive(), maxReceive());
+        }
+        if (factory instanceof Lifecycle && !((Lifecycle) factory).start()) {
+            return false;
+        }
+        if (processor instanceof Lifecycle && !((Lifecycle) processor).start()) {
+            return false;
+        }
+        try {
+            int maxThreads = maxThreads();
+            //启动卸载线程池
+            //启用虚拟线程时每个卸载的请求运行在独立的虚拟线程上
+            if (!offloads.isEmpty()) {
+                if (isVirtualThreads()) {
+                    offloadExecutor = Platform.virtualThreadExecutor();
+                    if (offloadExecutor == null) {
+                        logger.warning("Virtual threads are not supported " +
+                                "by the current JVM, fall back to offload threads.");
+                    }
+                }
+                if (offloadExecutor == null) {
+                    AtomicInteger index = new AtomicInteger(0);
+                    offloadExecutor = Executors.newFixedThreadPool(maxThreads,
+                            r -> new Thread(r, "Offload-" + index.getAndIncrement()));
+                }
+            }
+            //启动EventLoop线程组
+            EventLoop loop;
+            for (int i = 0; i < maxThreads; i++) {
+                loop = new EventLoop(i);
+                loops.add(loop);
+                loop.start();
+            }
+            //启动Acceptor线程组
+            //每个Acceptor线程只向所属的EventLoop线程组分派连接
+            acceptorThreads = Acceptor.open(logger, this,
+                    index -> channel -> groups.get(index).next().register(channel));
+            groups = Group.partition(loops, acceptorThreads.size(), balancer());
+            for (Acceptor acceptor : acceptorThreads) {
+                acceptor.register(port());
+                acceptor.start();
+            }
+            logger.config("Connector startup now.");
+            return true;
+        } catch (IOException e) {
+            logger.severe(e.getMessage());
+        }
+        stop();
+        return false;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (Acceptor acceptor : acceptorThreads) {
+            acceptor.shutdown();
+        }
+        for (EventLoop loop : loops) {
+            loop.selector.wakeup();
+        }
+        if (offloadExecutor != null) {
+            offloadExecutor.shutdown();
+        }
+        if (factory instanceof Lifecycle) {
+            ((Lifecycle) factory).stop();
+        }
+        if (processor instanceof Lifecycle) {
+            ((Lifecycle) processor).stop();
+        }
+        logger.config("Connector stop now.");
+    }
+
+    @Override
+    public void setLogStyle(LogStyle logStyle) {
+        if (logStyle.disabled() || logSetup) {
+            return;
+        }
+        if (factory != null && factory instanceof LogAble) {
+            ((LogAble) factory).setLogStyle(logStyle);
+        }
+        LogUtils.initLogger(logger, logStyle);
+        if (processor != null && processor instanceof LogAble) {
+            ((LogAble) processor).setLogStyle(logStyle);
+        }
+        logSetup = true;
+    }
+
+    @Override
+    public void setCharset(Charset charset) {
+        if (factory != null && factory instanceof CodeAble) {
+            ((CodeAble) factory).setCharset(charset);
+        }
+        if (processor != null && processor instanceof CodeAble) {
+            ((CodeAble) processor).setCharset(charset);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() +
+                "EventLoop  : true\n" +
+                "Offloads   : " + offloads + "\n";
+    }
+
+    /**
+     * EventLoop线程
+     * 处理所属Socket会话通道的全部I/O事件和请求
+     */
+    private class EventLoop extends Thread implements Load {
+
+        /**
+         * 通道选择器
+         */
+        private Selector selector;
+
+        /**
+         * 待注册的Socket会话通道队列
+         */
+        private Queue<SocketChannel> channels = new ConcurrentLinkedQueue<>();
+
+        /**
+         * 卸载线程池递交回的任务队列
+         */
+        private Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+        /**
+         * 负载统计
+         */
+        private LoadMeter meter = new LoadMeter();
+
+        /**
+         * 会话超时时间轮
+         * 读取时只记录时间，到期时再按会话状态重新计算期限
+         */
+        private TimerWheel<Session> timers = new TimerWheel<>(TIMER_TICK, TIMER_WHEEL_SIZE);
+
+        EventLoop(int i) throws IOException {
+            super("EventLoop-" + i);
+            selector = Selector.open();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    int events = selector.select(1000);
+                    registerChannels();
+                    runTasks();
+                    meter.record(events, selector.keys().size());
+                    timers.advance(System.nanoTime(), this::expire);
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+                        if (key.isValid() && key.isWritable()) {
+                            doFlush(key);
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            doRead(key);
+                        }
+                    }
+                } catch (IOException e) {
+                    logger.severe(e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * 由Acceptor线程调用
+         * 将Socket会话通道交由当前线程注册
+         */
+        void register(SocketChannel channel) {
+            meter.connected();
+            channels.offer(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public int connections() {
+            return meter.connections();
+        }
+
+        @Override
+        public double eventRate() {
+            return meter.eventRate();
+        }
+
+        /**
+         * 由卸载线程池调用
+         * 将任务交由当前线程执行
+         */
+        private void execute(Runnable task) {
+            tasks.offer(task);
+            selector.wakeup();
+        }
+
+        /**
+         * 注册待注册的Socket会话通道
+         */
+        private void registerChannels() {
+            SocketChannel channel;
+            while ((channel = channels.poll()) != null) {
+                Producer producer = cacheQueue.get();
+                if (producer == null) {
+                    producer = factory.create();
+                }
+                producer.reset(channel);
+                try {
+                    Session session = new Session(channel, producer,
+                            new OutboundQueue(maxOutbound(), outboundBytes, maxTotalOutbound()));
+                    channel.register(selector, SelectionKey.OP_READ, session);
+                    long now = System.nanoTime();
+                    session.touch(now, false);
+                    timers.schedule(session.timer(), deadline(session, now, false));
+                } catch (ClosedChannelException e) {
+                    logger.warning(e.getMessage());
+                    producer.clear();
+                    cacheQueue.cache(producer);
+                }
+            }
+        }
+
+        /**
+         * 执行卸载线程池递交回的任务
+         */
+        private void runTasks() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+
+        /**
+         * 处理可读通道
+         */
+        private void doRead(SelectionKey key) {
+            Session session = (Session) key.attachment();
+            Producer producer = session.producer();
+            try {
+                if (producer.readOnChannel() == -1) {
+                    //客户端关闭Socket会话
+                    close(key, session);
+                    return;
+                }
+            } catch (IOException e) {
+                logger.warning(e.getMessage());
+                close(key, session);
+                return;
+            }
+            //先递交缓冲区中的全部请求，以便合并写入它们的响应
+            //会话正在处理其他请求时仅排队等待
+            boolean produced = false;
+            boolean acquired = false;
+            Request request;
+            while ((request = producer.makeRequest()) != null) {
+                produced = true;
+                acquired |= session.offer(request);
+            }
+            session.touch(System.nanoTime(), produced);
+            if (acquired) {
+                drain(key, session);
+            }
+        }
+
+        /**
+         * 按到达顺序处理会话中的请求
+         * 调用者必须持有会话执行权
+         */
+        private void drain(SelectionKey key, Session session) {
+            do {
+                Request request;
+                while ((request = session.poll()) != null) {
+                    if (!key.isValid()) {
+                        session.discard();
+                        break;
+                    }
+                    if (offloadExecutor != null && !request.failedParsing()
+                            && offloads.contains(request.url())) {
+                        if (flush(key, session)) {
+                            offload(key, session, request);
+                        }
+                        return;
+                    }
+                    Response response;
+                    try {
+                        response = processor.process(request);
+                    } catch (RuntimeException e) {
+                        logger.severe(e.toString());
+                        close(key, session);
+                        return;
+                    }
+                    if (!write(key, session, request, response)) {
+                        //积压过多，等待积压回落后继续处理
+                        return;
+                    }
+                }
+                if (!flush(key, session)) {
+                    return;
+                }
+            } while (session.release());
+        }
+
+        /**
+         * 将请求移交给卸载线程池处理
+         * 处理完成后由当前线程写入响应并继续处理会话
+         */
+        private void offload(SelectionKey key, Session session, Request request) {
+            offloadExecutor.execute(() -> {
+                Response response;
+                try {
+                    response = processor.process(request);
+                } catch (RuntimeException e) {
+                    logger.severe(e.toString());
+                    response = null;
+                }
+                Response result = response;
+                execute(() -> {
+                    if (result == null) {
+                        close(key, session);
+                    } else if (write(key, session, request, result)) {
+                        drain(key, session);
+                    }
+                });
+            });
+        }
+
+        /**
+         * 写入响应
+         * 响应先进入会话的待写入响应队列
+         * 会话中还有待处理请求且积压未达到合并阀值时暂不写入
+         *
+         * @return 是否继续处理会话
+         * 返回{@code false}表示会话已关闭或积压过多，积压回落后继续处理
+         */
+        private boolean write(SelectionKey key, Session session, Request request, Response response) {
+            if (response == null) {
+                logger.warning("Failed to get response object.");
+                return true;
+            }
+            OutboundQueue outbounds = session.outbounds();
+            boolean full = outbounds.offer(new Outbound(response.region(), response.toBuffers())
+                    .last(request.closeAfterResponse()));
+            if (!key.isValid()) {
+                close(key, session);
+                return false;
+            }
+            if (full) {
+                outbounds.suspend();
+            }
+            if (full || session.peek() == null || outbounds.coalesced()) {
+                if (!flush(key, session)) {
+                    return false;
+                }
+            }
+            if (!full) {
+                return true;
+            }
+            boolean resumed = outbounds.resume();
+            interest(key, outbounds);
+            return resumed;
+        }
+
+        /**
+         * 未在等待通道可写时写入待写入响应
+         * 未写完时注册可写事件
+         *
+         * @return 会话是否仍然有效
+         */
+        private boolean flush(SelectionKey key, Session session) {
+            if (!key.isValid()) {
+                return false;
+            }
+            OutboundQueue outbounds = session.outbounds();
+            if (outbounds.isEmpty() || (key.interestOps() & SelectionKey.OP_WRITE) != 0) {
+                return true;
+            }
+            try {
+                outbounds.flush(session.channel());
+            } catch (IOException e) {
+                logger.warning(e.getMessage());
+                close(key, session);
+                return false;
+            }
+            if (outbounds.finished()) {
+                //最后一个响应已写完，关闭连接
+                close(key, session);
+                return false;
+            }
+            if (!outbounds.isEmpty()) {
+                //注册可写事件
+                interest(key, outbounds);
+            }
+            return true;
+        }
+
+        /**
+         * 按待写入响应队列的状态设置感兴趣的事件
+         * 有未写入的响应时监听可写事件，会话被挂起时不再读取新请求
+         */
+        private void interest(SelectionKey key, OutboundQueue outbounds) {
+            int ops = outbounds.suspended() ? 0 : SelectionKey.OP_READ;
+            if (!outbounds.isEmpty()) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            key.interestOps(ops);
+        }
+
+        /**
+         * 处理可写通道
+         * 积压回落后继续处理被挂起的会话
+         */
+        private void doFlush(SelectionKey key) {
+            Session session = (Session) key.attachment();
+            OutboundQueue outbounds = session.outbounds();
+            try {
+                outbounds.flush(session.channel());
+            } catch (IOException e) {
+                logger.warning(e.getMessage());
+                close(key, session);
+                return;
+            }
+            if (outbounds.finished()) {
+                close(key, session);
+                return;
+            }
+            boolean resumed = outbounds.resume();
+            interest(key, outbounds);
+            if (resumed) {
+                drain(key, session);
+            }
+        }
+
+        /**
+         * 处理到期的会话定时器
+         * 未超时则按新的期限重新添加
+         */
+        private void expire(Session session) {
+            SelectionKey key = session.channel().keyFor(selector);
+            if (key == null || !key.isValid()) {
+                return;
+            }
+            long now = System.nanoTime();
+            boolean paused = (key.interestOps() & SelectionKey.OP_READ) == 0;
+            long deadline = deadline(session, now, paused);
+            if (deadline - now > 0) {
+                timers.schedule(session.timer(), deadline);
+                return;
+            }
+            logger.config(String.format("Timeout, close the connection: %s.", session.channel()));
+            close(key, session);
+        }
+
+        /**
+         * 关闭Socket会话并回收请求生成器
+         */
+        private void close(SelectionKey key, Session session) {
+            timers.cancel(session.timer());
+            try {
+                session.outbounds().close();
+            } catch (IOException e) {
+                logger.warning(e.getMessage());
+            }
+            if (!key.isValid()) {
+                return;
+            }
+            key.cancel();
+            try {
+                session.channel().close();
+            } catch (IOException e) {
+                logger.warning(e.getMessage());
+            }
+            session.discard();
+            Producer producer = session.producer();
+            producer.clear();
+            cacheQueue.cache(producer);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.jerry.net.connector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * I/O线程组
+ * 每个Acceptor线程独占一个I/O线程组，新连接只分派给组内的I/O线程
+ *
+ * @param <T> I/O线程类型
+ */
+final class Group<T extends Load> {
+
+    /**
+     * 组内I/O线程
+     */
+    private final List<T> members;
+
+    /**
+     * 新连接分派策略
+     */
+    private final Balancer balancer;
+
+    private Group(List<T> members, Balancer balancer) {
+        this.members = members;
+        this.balancer = balancer;
+    }
+
+    /**
+     * 按分派策略获取一个I/O线程
+     * 允许多个Acceptor线程并发调用
+     */
+    T next() {
+        return members.get(balancer.select(members));
+    }
+
+    /**
+     * 将I/O线程均分为指定数量的线程组
+     *
+     * @param members  I/O线程
+     * @param count    线程组数量
+     * @param balancer 新连接分派策略
+     * @return I/O线程组
+     */
+    static <T extends Load> List<Group<T>> partition(List<T> members, int count, Balancer balancer) {
+        List<List<T>> lists = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lists.add(new ArrayList<>());
+        }
+        for (int i = 0; i < members.size(); i++) {
+            lists.get(i % count).add(members.get(i));
+        }
+        List<Group<T>> groups = new ArrayList<>(count);
+        for (List<T> list : lists) {
+            groups.add(new Group<>(list, balancer));
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,42 @@
+package com.jerry.net.connector;
+
+import java.util.List;
+
+/**
+ * 最小负载分派策略
+ * 将新连接分派给负载最低的I/O线程
+ * <p>
+ * 负载由连接数量占比和I/O事件频率占比两部分相加得到
+ * 长连接较多但空闲的线程和连接较少但繁忙的线程都会被视为高负载
+ */
+public class LeastLoadedBalancer implements Balancer {
+
+    @Override
+    public int select(List<? extends Load> candidates) {
+        int size = candidates.size();
+        long connections = 0;
+        double eventRate = 0;
+        for (int i = 0; i < size; i++) {
+            Load load = candidates.get(i);
+            connections += load.connections();
+            eventRate += load.eventRate();
+        }
+        int index = 0;
+        double min = Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Load load = candidates.get(i);
+            double score = 0;
+            if (connections > 0) {
+                score += (double) load.connections() / connections;
+            }
+            if (eventRate > 0) {
+                score += load.eventRate() / eventRate;
+            }
+            if (score < min) {
+                min = score;
+                index = i;
+            }
+        }
+        return index;
+    }
+}
@@ -0,0 +1,17 @@
+package com.jerry.net.connector;
+
+/**
+ * I/O线程负载抽象接口
+ */
+public interface Load {
+
+    /**
+     * @return 已分派给该线程的Socket会话通道数量
+     */
+    int connections();
+
+    /**
+     * @return 最近每秒处理的I/O事件数量
+     */
+    double eventRate();
+}
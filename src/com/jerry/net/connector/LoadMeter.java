@@ -0,0 +1,76 @@
+package com.jerry.net.connector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * I/O线程负载统计
+ * 连接数量在分派时立即计入，避免短时间内的新连接集中分派给同一线程
+ * 所属线程每秒以实际注册的通道数量校正连接数量并更新I/O事件频率
+ */
+final class LoadMeter implements Load {
+
+    /**
+     * 统计周期(纳秒)
+     */
+    private static final long PERIOD = 1000000000L;
+
+    /**
+     * 已分派的Socket会话通道数量
+     */
+    private final AtomicInteger connections = new AtomicInteger(0);
+
+    /**
+     * 最近每秒处理的I/O事件数量
+     */
+    private volatile double eventRate = 0;
+
+    /**
+     * 当前统计周期内处理的I/O事件数量
+     * 仅允许所属线程访问
+     */
+    private long events = 0;
+
+    /**
+     * 当前统计周期的起始时间
+     * 仅允许所属线程访问
+     */
+    private long periodStart = System.nanoTime();
+
+    /**
+     * 分派新连接时调用
+     */
+    void connected() {
+        connections.incrementAndGet();
+    }
+
+    /**
+     * 由所属线程在每次事件循环后调用
+     *
+     * @param events      本次处理的I/O事件数量
+     * @param connections 所属线程实际持有的通道数量
+     */
+    void record(int events, int connections) {
+        this.events += events;
+        long now = System.nanoTime();
+        long elapsed = now - periodStart;
+        if (elapsed < PERIOD) {
+            return;
+        }
+        //以指数加权平均平滑突发流量
+        double rate = this.events * 1e9 / elapsed;
+        eventRate = (eventRate + rate) / 2;
+        this.connections.set(connections);
+        this.events = 0;
+        periodStart = now;
+    }
+
+    @Override
+    public int connections() {
+        return connections.get();
+    }
+
+    @Override
+    public double eventRate() {
+        return eventRate;
+    }
+}
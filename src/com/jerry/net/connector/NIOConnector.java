@@ -3,24 +3,30 @@ package com.jerry.net.connector;
 import com.jerry.extend.Lifecycle;
 import com.jerry.agent.response.Response;
 import com.jerry.net.request.Request;
+import com.jerry.extend.BufferAble;
 import com.jerry.extend.CodeAble;
 import com.jerry.logger.LogAble;
 import com.jerry.net.producer.Producer;
 import com.jerry.utils.CacheQueue;
 import com.jerry.logger.LogStyle;
 import com.jerry.logger.LogUtils;
-import com.jerry.utils.ChannelUtils;
+import com.jerry.utils.Platform;
+import com.jerry.utils.TimerWheel;
 
 import java.io.IOException;
-import java.net.InetSocketAddress;
-import java.net.Socket;
 import java.nio.ByteBuffer;
 import java.nio.channels.*;
 import java.nio.charset.Charset;
 import java.util.*;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.*;
 
 /**
@@ -46,8 +52,9 @@ public final class NIOConnector extends Connector implements LogAble, CodeAble {
 
     /**
      * 同步事务队列
+     * 队列中的每个会话同一时刻只会被一个Worker线程处理
      */
-    private BlockingQueue<Work> workQueue = new LinkedBlockingQueue<>();
+    private BlockingQueue<Session> workQueue = new LinkedBlockingQueue<>();
 
     /**
      * 异步事务队列
@@ -59,33 +66,113 @@ public final class NIOConnector extends Connector implements LogAble, CodeAble {
      */
     private CacheQueue<Work> workCache = new CacheQueue<>();
 
+    /**
+     * 单次调度最多处理的请求数量
+     * 避免单个会话长期占用处理线程
+     */
+    private static final int BATCH = 16;
+
+    /**
+     * 预先生成的过载响应
+     */
+    private static final byte[] SERVICE_UNAVAILABLE = ("HTTP/1.1 503 Service Unavailable\r\n" +
+            "Content-Type: text/plain\r\n" +
+            "Content-Length: 19\r\n" +
+            "Retry-After: 1\r\n" +
+            "\r\n" +
+            "Service Unavailable").getBytes();
+
+    /**
+     * 被拒绝请求的占位对象
+     * 在会话中占据被拒绝请求的位置，保证响应顺序与请求顺序一致
+     */
+    private static final Request REJECTED = new Request() {
+
+        @Override
+        public boolean failedParsing() {
+            return true;
+        }
+
+        @Override
+        public void addr(String addr) {
+        }
+
+        @Override
+        public String addr() {
+            return null;
+        }
+
+        @Override
+        public String url() {
+            return null;
+        }
+    };
+
+    /**
+     * 等待处理线程的请求数量
+     */
+    private AtomicInteger pending = new AtomicInteger(0);
+
+    /**
+     * 因过载被拒绝的请求数量
+     */
+    private AtomicLong rejected = new AtomicLong(0);
+
+    /**
+     * 全部会话未写入响应的字节数
+     */
+    private AtomicLong outboundBytes = new AtomicLong(0);
+
+    /**
+     * 基于排队延迟的准入控制
+     * 为{@code null}表示不启用
+     */
+    private CoDel codel;
+
     /**
      * Reader线程组
      */
     private List<Reader> readers = new ArrayList<>();
 
     /**
-     * Reader线程组轮询索引
+     * 按Acceptor线程划分的Reader线程组
      */
-    private int rotation = 0;
+    private List<Group<Reader>> groups;
 
     /**
      * 异步Writer线程
      */
     private Writer writer;
 
+    /**
+     * Acceptor线程组
+     */
+    private List<Acceptor> acceptorThreads = new ArrayList<>();
+
+    /**
+     * 虚拟线程执行器
+     * 为{@code null}表示使用Worker线程组处理会话
+     */
+    private ExecutorService executor;
+
     @Override
     public boolean start() {
         if (processor == null || factory == null) {
             logger.severe("Connector missing required parameters.");
             return false;
         }
+        if (factory instanceof BufferAble) {
+            ((BufferAble) factory).setReceiveBuffer(minReceive(), maxReceive());
+        }
         if (factory instanceof Lifecycle && !((Lifecycle) factory).start()) {
             return false;
         }
         if (processor instanceof Lifecycle && !((Lifecycle) processor).start()) {
             return false;
         }
+        if (codelTarget() > 0) {
+            codel = new CoDel(codelTarget(), codelInterval() > 0 ? codelInterval() : 100);
+        }
         try {
             int maxThreads = maxThreads();
             //启动Reader线程组
@@ -96,16 +183,31 @@ public final class NIOConnector extends Connector implements LogAble, CodeAble {
                 reader.start();
             }
             //启动Worker线程组
-            for (int i = 0; i < maxThreads; i++) {
-                new Worker(i).start();
+            //使用虚拟线程时不再需要Worker线程组
+            if (isVirtualThreads()) {
+                executor = Platform.virtualThreadExecutor();
+                if (executor == null) {
+                    logger.warning("Virtual threads are not supported " +
+                            "by the current JVM, fall back to worker threads.");
+                }
+            }
+            if (executor == null) {
+                for (int i = 0; i < maxThreads; i++) {
+                    new Worker(i).start();
+                }
             }
             //启动异步Writer线程
             writer = new Writer();
             writer.start();
-            //启动Acceptor线程
-            Acceptor acceptor = new Acceptor();
-            acceptor.register(port());
-            acceptor.start();
+            //启动Acceptor线程组
+            //每个Acceptor线程只向所属的Reader线程组分派连接
+            acceptorThreads = Acceptor.open(logger, this,
+                    index -> channel -> groups.get(index).next().register(channel));
+            groups = Group.partition(readers, acceptorThreads.size(), balancer());
+            for (Acceptor acceptor : acceptorThreads) {
+                acceptor.register(port());
+                acceptor.start();
+            }
             logger.config("Connector startup now.");
             return true;
         } catch (IOException e) {
@@ -118,6 +220,12 @@ public final class NIOConnector extends Connector implements LogAble, CodeAble {
     @Override
     public void stop() {
         running = false;
+        for (Acceptor acceptor : acceptorThreads) {
+            acceptor.shutdown();
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
         if (factory instanceof Lifecycle) {
             ((Lifecycle) factory).stop();
         }
@@ -153,101 +261,74 @@ public final class NIOConnector extends Connector implements LogAble, CodeAble {
     }
 
     /**
-     * 以轮询方式从Reader线程组获取一个Reader线程对象
+     * @return 等待处理线程的请求数量
      */
-    private Reader getReader() {
-        if (rotation == Integer.MAX_VALUE) {
-            rotation = 0;
-        }
-        return readers.get((rotation++) % maxThreads());
+    public int queueDepth() {
+        return pending.get();
+    }
+
+    /**
+     * @return 因过载被拒绝的请求数量
+     */
+    public long rejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * @return 全部会话未写入响应的字节数
+     */
+    public long outboundBytes() {
+        return outboundBytes.get();
     }
 
     /**
-     * Acceptor线程
-     * 监听指定端口的连接请求
+     * @return 待处理请求数量是否已达到上限
      */
-    private class Acceptor extends Thread {
+    private boolean overloaded() {
+        int capacity = queueCapacity();
+        return capacity > 0 && pending.get() >= capacity;
+    }
+
+    /**
+     * Reader线程
+     * 监听通道可读事件
+     */
+    private class Reader extends Thread implements Load {
 
         /**
          * 通道选择器
          */
-        private Selector selector;
+        private Selector readSelector;
 
         /**
-         * 连接监听通道
+         * 因过载暂停读取的通道
+         * 仅允许当前线程访问
          */
-        private ServerSocketChannel channel;
-
-        Acceptor() throws IOException {
-            super("Acceptor");
-            selector = Selector.open();
-            channel = ServerSocketChannel.open();
-        }
-
-        @Override
-        public void run() {
-            while (running) {
-                try {
-                    int state = selector.select();
-                    if (state == 0) {
-                        continue;
-                    }
-                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
-                    while (it.hasNext()) {
-                        SelectionKey key = it.next();
-                        it.remove();
-                        if (key.isValid() && key.isAcceptable()) {
-                            doAccept(key);
-                        }
-                    }
-                } catch (IOException e) {
-                    logger.severe(e.getMessage());
-                }
-            }
-        }
+        private Queue<SelectionKey> paused = new ArrayDeque<>();
 
         /**
-         * 处理到达的连接请求
+         * 因未写入响应积压过多暂停读取的通道
+         * 仅允许当前线程访问
          */
-        private void doAccept(SelectionKey selectionKey) throws IOException {
-            ServerSocketChannel channel = (ServerSocketChannel) selectionKey.channel();
-            SocketChannel socketChannel = channel.accept();
-            if (socketChannel == null) {
-                logger.warning("Failed to get socket channel.");
-                return;
-            }
-            socketChannel.configureBlocking(false);
-            Socket socket = socketChannel.socket();
-            socket.setTcpNoDelay(!useNagle);
-            socket.setKeepAlive(keepAlive);
-            getReader().register(socketChannel);
-        }
+        private List<SelectionKey> throttled = new ArrayList<>();
 
         /**
-         * 为指定端口注册连接请求监听
+         * 待注册的Socket会话通道队列
+         * 由Acceptor线程写入，当前线程读取并注册
          */
-        private void register(int port) throws IOException {
-            channel.configureBlocking(false);
-            channel.socket().bind(new InetSocketAddress(port), backlog());
-            channel.register(selector, SelectionKey.OP_ACCEPT);
-        }
-    }
-
-    /**
-     * Reader线程
-     * 监听通道可读事件
-     */
-    private class Reader extends Thread {
+        private Queue<SocketChannel> channels = new ConcurrentLinkedQueue<>();
 
         /**
-         * 通道选择器
+         * 负载统计
          */
-        private Selector readSelector;
+        private LoadMeter meter = new LoadMeter();
 
         /**
-         * 线程同步控制变量
+         * 会话超时时间轮
+         * 读取时只记录时间，到期时再按会话状态重新计算期限
+         * 仅允许当前线程访问
          */
-        private boolean locked = false;
+        private TimerWheel<Session> timers = new TimerWheel<>(TIMER_TICK, TIMER_WHEEL_SIZE);
 
         Reader(int i) throws IOException {
             super("Reader-" + i);
@@ -258,12 +339,13 @@ public final class NIOConnector extends Connector implements LogAble, CodeAble {
         public void run() {
             while (running) {
                 try {
-                    readSelector.select();
-                    while (locked) {
-                        synchronized (this) {
-                            this.wait(1000);
-                        }
-                    }
+                    //存在暂停读取的通道时更频繁地检查是否可以恢复
+                    int events = readSelector.select(paused.isEmpty() && throttled.isEmpty() ? 1000 : 100);
+                    registerChannels();
+                    resumePaused();
+                    resumeThrottled();
+                    meter.record(events, readSelector.keys().size());
+                    timers.advance(System.nanoTime(), this::expire);
                     Iterator<SelectionKey> it = readSelector.selectedKeys().iterator();
                     while (it.hasNext()) {
                         SelectionKey key = it.next();
@@ -272,7 +354,7 @@ public final class NIOConnector extends Connector implements LogAble, CodeAble {
                             doRead(key);
                         }
                     }
-                } catch (IOException | InterruptedException e) {
+                } catch (IOException e) {
                     logger.severe(e.getMessage());
                 }
             }
@@ -282,69 +364,214 @@ public final class NIOConnector extends Connector implements LogAble, CodeAble {
          * 处理可读通道
          */
         private void doRead(SelectionKey selectionKey) throws IOException {
-            Producer producer = (Producer) selectionKey.attachment();
-            if (producer == null) {
-                logger.warning("Failed to get request producer.");
+            Session session = (Session) selectionKey.attachment();
+            if (session == null) {
+                logger.warning("Failed to get socket session.");
+                return;
+            }
+            //积压过多的会话暂停读取，避免继续为其生成响应
+            if (session.outbounds().suspended()) {
+                selectionKey.interestOps(0);
+                throttled.add(selectionKey);
                 return;
             }
-            int readBytes = producer.readOnChannel();
+            int readBytes = session.producer().readOnChannel();
             if (readBytes != -1) {
-                //生成请求对象
-                Request request = producer.makeRequest();
-                if (request == null) {
-                    logger.warning("Failed to get request object.");
-                    return;
+                session.touch(System.nanoTime(), dispatch(selectionKey, session));
+            } else {
+                //客户端关闭Socket会话
+                close(session);
+            }
+        }
+
+        /**
+         * 依次生成缓冲区中的全部请求对象并递交给会话
+         * 待处理请求数量达到上限时按过载处理策略处理
+         *
+         * @return 是否生成了请求
+         */
+        private boolean dispatch(SelectionKey key, Session session) {
+            OverloadPolicy policy = overloadPolicy();
+            Producer producer = session.producer();
+            Request request;
+            boolean produced = false;
+            //请求尚未接收完整时返回null
+            while ((request = producer.makeRequest()) != null) {
+                produced = true;
+                //分帧失败的请求不受过载策略影响，保证答复后关闭连接
+                if (overloaded() && !request.closeAfterResponse()) {
+                    if (policy == OverloadPolicy.SHED) {
+                        shed(session);
+                        continue;
+                    }
+                    if (policy == OverloadPolicy.BLOCK) {
+                        await();
+                    }
                 }
-                //生成事务对象
-                Work work = workCache.get();
-                if (work == null) {
-                    work = new Work();
+                //请求进入会话的串行执行通道
+                //仅在会话空闲时递交事务
+                pending.incrementAndGet();
+                if (session.offer(request)) {
+                    schedule(session);
+                }
+                //缓冲区中剩余的请求在恢复读取后继续处理
+                if (policy == OverloadPolicy.PAUSE && overloaded()) {
+                    key.interestOps(0);
+                    paused.offer(key);
+                    return true;
                 }
-                work.reset(producer.channel(), request);
+            }
+            return produced;
+        }
+
+        /**
+         * 处理到期的会话定时器
+         * 未超时则按新的期限重新添加，已被其他线程关闭的会话直接回收
+         */
+        private void expire(Session session) {
+            SelectionKey key = session.channel().keyFor(readSelector);
+            if (key == null || !key.isValid()) {
+                close(session);
+                return;
+            }
+            long now = System.nanoTime();
+            long deadline = deadline(session, now, key.interestOps() == 0);
+            if (deadline - now > 0) {
+                timers.schedule(session.timer(), deadline);
+                return;
+            }
+            logger.config(String.format("Timeout, close the connection: %s.", session.channel()));
+            close(session);
+        }
+
+        /**
+         * 关闭会话并回收请求生成器
+         * 无其他线程写入时同时放弃全部待写入响应，否则由写入线程在写入失败时放弃
+         */
+        private void close(Session session) {
+            timers.cancel(session.timer());
+            if (session.outbounds().acquire()) {
+                abort(session);
+            } else {
                 try {
-                    //递交事务
-                    workQueue.put(work);
-                } catch (InterruptedException e) {
+                    session.channel().close();
+                } catch (IOException e) {
                     logger.warning(e.getMessage());
-                    work.clear();
-                    workCache.cache(work);
                 }
+            }
+            discard(session);
+            Producer producer = session.producer();
+            producer.clear();
+            cacheQueue.cache(producer);
+        }
+
+        /**
+         * 拒绝请求
+         * 会话空闲时由当前线程直接写入过载响应
+         */
+        private void shed(Session session) {
+            rejected.incrementAndGet();
+            if (!session.offer(REJECTED)) {
+                return;
+            }
+            //只写入队首的过载响应，其余请求仍交由处理线程处理
+            while (session.peek() == REJECTED) {
+                session.poll();
+                if (!write(session, new Outbound(ByteBuffer.wrap(SERVICE_UNAVAILABLE)))) {
+                    return;
+                }
+            }
+            flush(session);
+            if (session.peek() == null) {
+                release(session);
             } else {
-                //客户端关闭Socket会话
-                producer.channel().close();
-                producer.clear();
-                cacheQueue.cache(producer);
+                schedule(session);
             }
         }
 
         /**
-         * 注册通道可读事件监听
+         * 阻塞当前线程直到待处理请求数量回落
          */
-        void register(SocketChannel channel) throws IOException {
-            this.begin();
-            Producer producer = cacheQueue.get();
-            if (producer == null) {
-                producer = factory.create();
+        private void await() {
+            while (running && overloaded()) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
             }
-            producer.reset(channel);
-            channel.register(readSelector, SelectionKey.OP_READ, producer);
-            this.end();
         }
 
         /**
-         * 开始同步注册
+         * 待处理请求数量回落后恢复读取暂停的通道
          */
-        private void begin() {
-            locked = true;
+        private void resumePaused() {
+            SelectionKey key;
+            while (!overloaded() && (key = paused.poll()) != null) {
+                if (!key.isValid()) {
+                    continue;
+                }
+                key.interestOps(SelectionKey.OP_READ);
+                dispatch(key, (Session) key.attachment());
+            }
+        }
+
+        /**
+         * 恢复读取积压已回落的通道
+         */
+        private void resumeThrottled() {
+            Iterator<SelectionKey> it = throttled.iterator();
+            while (it.hasNext()) {
+                SelectionKey key = it.next();
+                if (!key.isValid()) {
+                    it.remove();
+                } else if (!((Session) key.attachment()).outbounds().suspended()) {
+                    it.remove();
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            }
+        }
+
+        /**
+         * 由Acceptor线程调用
+         * 将Socket会话通道交由当前线程注册
+         */
+        void register(SocketChannel channel) {
+            meter.connected();
+            channels.offer(channel);
             readSelector.wakeup();
         }
 
+        @Override
+        public int connections() {
+            return meter.connections();
+        }
+
+        @Override
+        public double eventRate() {
+            return meter.eventRate();
+        }
+
         /**
-         * 结束同步注册
+         * 注册待注册Socket会话通道的可读事件监听
          */
-        private synchronized void end() {
-            locked = false;
-            this.notify();
+        private void registerChannels() {
+            SocketChannel channel;
+            while ((channel = channels.poll()) != null) {
+                Producer producer = cacheQueue.get();
+                if (producer == null) {
+                    producer = factory.create();
+                }
+                producer.reset(channel);
+                try {
+                    Session session = new Session(channel, producer,
+                            new OutboundQueue(maxOutbound(), outboundBytes, maxTotalOutbound()));
+                    channel.register(readSelector, SelectionKey.OP_READ, session);
+                    long now = System.nanoTime();
+                    session.touch(now, false);
+                    timers.schedule(session.timer(), deadline(session, now, false));
+                } catch (ClosedChannelException e) {
+                    logger.warning(e.getMessage());
+                    producer.clear();
+                    cacheQueue.cache(producer);
+                }
+            }
         }
     }
 
@@ -353,6 +580,11 @@ public final class NIOConnector extends Connector implements LogAble, CodeAble {
      */
     private static class Work {
 
+        /**
+         * Socket会话
+         */
+        Session session;
+
         /**
          * Socket会话通道
          */
@@ -363,74 +595,250 @@ public final class NIOConnector extends Connector implements LogAble, CodeAble {
          */
         Object object;
 
-        void reset(SocketChannel channel, Object object) {
-            this.channel = channel;
+        void reset(Session session, Object object) {
+            this.session = session;
+            this.channel = session.channel();
             this.object = object;
         }
 
         void clear() {
+            session = null;
             channel = null;
             object = null;
         }
     }
 
     /**
-     * Worker线程
-     * 响应客户端请求
+     * 递交会话事务
+     * 使用虚拟线程时每次调度都在新的虚拟线程中处理会话
+     * 否则将会话置入同步事务队列等待Worker线程处理
      */
-    private class Worker extends Thread {
+    private void schedule(Session session) {
+        if (codel != null) {
+            session.scheduledTime(System.nanoTime());
+        }
+        if (executor != null) {
+            try {
+                executor.execute(() -> doWork(session));
+                return;
+            } catch (RejectedExecutionException e) {
+                logger.warning(e.getMessage());
+            }
+        }
+        workQueue.offer(session);
+    }
 
-        public Worker(int i) {
-            super("Worker-" + i);
+    /**
+     * 释放会话执行权
+     * 若会话仍有待处理请求则重新递交事务
+     */
+    private void release(Session session) {
+        if (session.release()) {
+            schedule(session);
         }
+    }
 
-        public void run() {
-            while (running) {
-                try {
-                    Work work = workQueue.take();
-                    doWrite(work);
-                } catch (InterruptedException e) {
-                    logger.warning(e.getMessage());
-                }
+    /**
+     * 丢弃会话中的全部待处理请求
+     */
+    private void discard(Session session) {
+        Request request;
+        while ((request = session.poll()) != null) {
+            if (request != REJECTED) {
+                taken();
             }
         }
+        session.discard();
+    }
 
-        /**
-         * 响应客户端请求
-         */
-        private void doWrite(Work work) {
-            if (!(work.object instanceof Request)) {
-                logger.warning("Failed to convert request class.");
+    /**
+     * 请求离开等待队列
+     * 使用暂停读取策略时待处理请求数量回落到上限以下则唤醒Reader线程
+     */
+    private void taken() {
+        int depth = pending.decrementAndGet();
+        if (depth == queueCapacity() - 1 && overloadPolicy() == OverloadPolicy.PAUSE) {
+            for (Reader reader : readers) {
+                reader.readSelector.wakeup();
+            }
+        }
+    }
+
+    /**
+     * 按到达顺序处理会话中的请求
+     */
+    private void doWork(Session session) {
+        //排队过久的会话直接返回过载响应
+        if (codel != null && codel.drop(System.nanoTime() - session.scheduledTime())) {
+            doShed(session);
+            return;
+        }
+        Request request;
+        int count = 0;
+        while (count++ < BATCH && (request = session.poll()) != null) {
+            if (request == REJECTED) {
+                if (!write(session, new Outbound(ByteBuffer.wrap(SERVICE_UNAVAILABLE)))) {
+                    return;
+                }
+                continue;
+            }
+            taken();
+            if (!session.channel().isOpen()) {
+                discard(session);
+                break;
+            }
+            if (!doWrite(session, request)) {
+                //积压过多，由异步Writer线程在积压回落后释放执行权
                 return;
             }
-            Request request = (Request) work.object;
-            Response response = processor.process(request);
-            if (response == null) {
-                logger.warning("Failed to get response object.");
+        }
+        flush(session);
+        release(session);
+    }
+
+    /**
+     * 以过载响应答复会话中的待处理请求
+     */
+    private void doShed(Session session) {
+        Request request;
+        int count = 0;
+        while (count++ < BATCH && (request = session.poll()) != null) {
+            if (request != REJECTED) {
+                taken();
+                rejected.incrementAndGet();
+            }
+            if (!session.channel().isOpen()) {
+                discard(session);
+                break;
+            }
+            if (!write(session, new Outbound(ByteBuffer.wrap(SERVICE_UNAVAILABLE))
+                    .last(request.closeAfterResponse()))) {
                 return;
             }
-            try {
-                ByteBuffer buffer = ByteBuffer.wrap(response.toBytes());
-                int writeBytes = ChannelUtils.write(work.channel, buffer);
-                if (writeBytes < 0) {
-                    throw new IOException("Socket write failed.");
+        }
+        flush(session);
+        release(session);
+    }
+
+    /**
+     * 响应客户端请求
+     *
+     * @return 是否继续处理会话
+     */
+    private boolean doWrite(Session session, Request request) {
+        Response response = processor.process(request);
+        if (response == null) {
+            logger.warning("Failed to get response object.");
+            return true;
+        }
+        return write(session, new Outbound(response.region(), response.toBuffers())
+                .last(request.closeAfterResponse()));
+    }
+
+    /**
+     * 写入响应
+     * 响应先进入会话的待写入响应队列
+     * 会话中还有待处理请求且积压未达到合并阀值时暂不写入，
+     * 以便将流水线请求的响应合并为一次聚集写入
+     *
+     * @return 是否继续处理会话
+     * 返回{@code false}表示积压过多，会话执行权已转交给异步Writer线程
+     */
+    private boolean write(Session session, Outbound outbound) {
+        OutboundQueue outbounds = session.outbounds();
+        boolean full = outbounds.offer(outbound);
+        if (full) {
+            outbounds.suspend();
+        }
+        if (full || session.peek() == null || outbounds.coalesced()) {
+            flush(session);
+        }
+        return !full;
+    }
+
+    /**
+     * 写入会话的待写入响应
+     * 写入队列空闲时由当前线程直接写入，写完后释放写入权
+     * 通道写满时将写入权转交给异步Writer线程
+     */
+    private void flush(Session session) {
+        OutboundQueue outbounds = session.outbounds();
+        if (outbounds.isEmpty() || !outbounds.acquire()) {
+            return;
+        }
+        try {
+            do {
+                outbounds.flush(session.channel());
+                if (outbounds.finished()) {
+                    //最后一个响应已写完，关闭连接
+                    abort(session);
+                    break;
                 }
-                if (!buffer.hasRemaining()) {
-                    work.clear();
-                    workCache.cache(work);
-                } else {
+                if (!outbounds.isEmpty()) {
                     //注册异步写事件
-                    work.object = buffer;
+                    Work work = workCache.get();
+                    if (work == null) {
+                        work = new Work();
+                    }
+                    work.reset(session, outbounds);
                     writer.submit(work);
+                    resumeSuspended(session);
+                    return;
                 }
+            } while (outbounds.release());
+        } catch (IOException e) {
+            logger.severe(e.getMessage());
+            abort(session);
+        }
+        resumeSuspended(session);
+    }
+
+    /**
+     * 关闭会话通道并放弃全部待写入响应
+     * 调用者必须持有写入权，返回时已释放写入权
+     */
+    private void abort(Session session) {
+        OutboundQueue outbounds = session.outbounds();
+        try {
+            session.channel().close();
+        } catch (IOException e) {
+            logger.severe(e.getMessage());
+        }
+        do {
+            try {
+                outbounds.close();
             } catch (IOException e) {
-                logger.severe(e.getMessage());
+                logger.warning(e.getMessage());
+            }
+        } while (outbounds.release());
+    }
+
+    /**
+     * 积压回落后恢复被挂起的会话
+     */
+    private void resumeSuspended(Session session) {
+        if (session.outbounds().resume()) {
+            release(session);
+        }
+    }
+
+    /**
+     * Worker线程
+     * 响应客户端请求
+     */
+    private class Worker extends Thread {
+
+        public Worker(int i) {
+            super("Worker-" + i);
+        }
+
+        public void run() {
+            while (running) {
                 try {
-                    work.channel.close();
-                    work.clear();
-                    workCache.cache(work);
-                } catch (IOException ex) {
-                    logger.severe(ex.getMessage());
+                    Session session = workQueue.take();
+                    doWork(session);
+                } catch (InterruptedException e) {
+                    logger.warning(e.getMessage());
                 }
             }
         }
@@ -447,6 +855,17 @@ public final class NIOConnector extends Connector implements LogAble, CodeAble {
          */
         Selector writeSelector;
 
+        /**
+         * 正在等待通道可写的异步事务
+         * 仅允许当前线程访问
+         */
+        private Set<Work> active = new HashSet<>();
+
+        /**
+         * 下一次检查已关闭通道的时间(纳秒)
+         */
+        private long nextExpire = System.nanoTime();
+
         public Writer() throws IOException {
             writeSelector = Selector.open();
         }
@@ -457,6 +876,7 @@ public final class NIOConnector extends Connector implements LogAble, CodeAble {
                 try {
                     registerWriters();
                     int state = writeSelector.select(1000);
+                    expire();
                     if (state == 0) {
                         continue;
                     }
@@ -489,15 +909,21 @@ public final class NIOConnector extends Connector implements LogAble, CodeAble {
                         try {
                             //为通道注册可写事件监听
                             work.channel.register(writeSelector, SelectionKey.OP_WRITE, work);
+                            active.add(work);
                         } catch (ClosedChannelException e) {
                             logger.warning(e.getMessage());
+                            abort(work);
                         }
                     } else {
                         //设置通道选择器只对通道可写事件感兴趣
+                        //同一会话同一时刻只有一个异步事务
                         key.interestOps(SelectionKey.OP_WRITE);
+                        key.attach(work);
+                        active.add(work);
                     }
                 } catch (CancelledKeyException e) {
                     logger.warning(e.getMessage());
+                    abort(work);
                 }
             }
         }
@@ -519,25 +945,78 @@ public final class NIOConnector extends Connector implements LogAble, CodeAble {
                 logger.warning("Failed to get Work object.");
                 return;
             }
-            if (!(work.object instanceof ByteBuffer)) {
+            if (!(work.object instanceof OutboundQueue)) {
                 logger.warning(String.format("The attachment type is wrong." +
                         " The current attachment type is: %s", work.object.getClass()));
                 return;
             }
-            ByteBuffer buffer = (ByteBuffer) work.object;
-            int writeBytes = ChannelUtils.write(work.channel, buffer);
-            if (writeBytes < 0 || buffer.remaining() == 0) {
+            OutboundQueue outbounds = (OutboundQueue) work.object;
+            try {
+                outbounds.flush(work.channel);
+            } catch (IOException e) {
+                logger.warning(e.getMessage());
+                abort(work);
+                return;
+            }
+            if (outbounds.finished()) {
+                //最后一个响应已写完，关闭连接
+                abort(work);
+                return;
+            }
+            resumeSuspended(work.session);
+            if (!outbounds.isEmpty()) {
+                return;
+            }
+            //写完后释放写入权，释放期间有新响应到达则继续监听可写事件
+            if (!outbounds.release()) {
                 try {
                     key.interestOps(0);
                 } catch (CancelledKeyException e) {
                     logger.warning(e.getMessage());
                 }
-                work.clear();
-                workCache.cache(work);
-            } else {
-                logger.warning("Asynchronous " +
-                        "write response information failed.");
+                complete(work);
             }
         }
+
+        /**
+         * 结束异步事务
+         * 写入失败时放弃会话的全部待写入响应
+         */
+        private void abort(Work work) {
+            NIOConnector.this.abort(work.session);
+            resumeSuspended(work.session);
+            complete(work);
+        }
+
+        /**
+         * 每秒检查一次异步事务
+         * 结束会话通道已被关闭的事务
+         * 写入超时由Reader线程的超时时间轮检查并关闭通道
+         */
+        private void expire() {
+            long now = System.nanoTime();
+            if (now - nextExpire < 0) {
+                return;
+            }
+            nextExpire = now + TimeUnit.SECONDS.toNanos(1);
+            List<Work> expired = new ArrayList<>();
+            for (Work work : active) {
+                if (!work.channel.isOpen()) {
+                    expired.add(work);
+                }
+            }
+            for (Work work : expired) {
+                abort(work);
+            }
+        }
+
+        /**
+         * 结束异步事务
+         */
+        private void complete(Work work) {
+            active.remove(work);
+            work.clear();
+            workCache.cache(work);
+        }
     }
 }
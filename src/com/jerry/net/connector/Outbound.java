@@ -0,0 +1,150 @@
+package com.jerry.net.connector;
+
+import com.jerry.utils.ChannelUtils;
+import com.jerry.utils.FileRegion;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+
+/**
+ * 待写入的响应
+ * 响应由多个字节缓冲区组成，以聚集写入的方式一次写入通道
+ * 记录写入进度以支持分多次写完
+ * <p>
+ * 字节缓冲区写完后继续写入文件区域(如果有)
+ * 文件区域不经过用户态内存，由内核直接拷贝到通道
+ */
+final class Outbound {
+
+    /**
+     * 响应字节缓冲区
+     */
+    private final ByteBuffer[] buffers;
+
+    /**
+     * 第一个未写完的字节缓冲区索引
+     */
+    private int offset = 0;
+
+    /**
+     * 文件区域
+     */
+    private final FileRegion region;
+
+    /**
+     * 是否为会话的最后一个响应
+     */
+    private boolean last;
+
+    Outbound(ByteBuffer... buffers) {
+        this(null, buffers);
+    }
+
+    Outbound(FileRegion region, ByteBuffer... buffers) {
+        this.buffers = buffers;
+        this.region = region;
+        skip();
+    }
+
+    /**
+     * 将响应写入通道
+     *
+     * @param channel IO通道
+     * @return 有效的写入字节数
+     * @throws IOException 向通道中写入数据失败
+     */
+    long write(GatheringByteChannel channel) throws IOException {
+        long writeBytes = 0;
+        if (offset < buffers.length) {
+            writeBytes = ChannelUtils.write(channel, buffers, offset, buffers.length - offset);
+            skip();
+            if (offset < buffers.length) {
+                return writeBytes;
+            }
+        }
+        if (region != null && region.hasRemaining()) {
+            writeBytes += region.transferTo(channel);
+        }
+        return writeBytes;
+    }
+
+    /**
+     * 收集未写完的字节缓冲区
+     * 用于将多个响应合并为一次聚集写入
+     *
+     * @param into  目标数组
+     * @param index 目标数组中第一个空闲位置
+     * @return 收集后目标数组中第一个空闲位置
+     */
+    int gather(ByteBuffer[] into, int index) {
+        skip();
+        for (int i = offset; i < buffers.length && index < into.length; i++) {
+            into[index++] = buffers[i];
+        }
+        return index;
+    }
+
+    /**
+     * @return 响应是否尚未写完
+     */
+    boolean hasRemaining() {
+        skip();
+        return offset < buffers.length || region != null && region.hasRemaining();
+    }
+
+    /**
+     * 标记为会话的最后一个响应
+     * 写完后连接器关闭连接
+     *
+     * @param last 是否为最后一个响应
+     * @return 当前对象
+     */
+    Outbound last(boolean last) {
+        this.last = last;
+        return this;
+    }
+
+    /**
+     * @return 是否为会话的最后一个响应
+     */
+    boolean isLast() {
+        return last;
+    }
+
+    /**
+     * @return 是否包含文件区域
+     */
+    boolean hasRegion() {
+        return region != null;
+    }
+
+    /**
+     * @return 尚未写入的字节数
+     */
+    long remaining() {
+        long remaining = region == null ? 0 : region.remaining();
+        for (int i = offset; i < buffers.length; i++) {
+            remaining += buffers[i].remaining();
+        }
+        return remaining;
+    }
+
+    /**
+     * 放弃写入并释放文件区域
+     */
+    void close() throws IOException {
+        if (region != null) {
+            region.close();
+        }
+    }
+
+    /**
+     * 跳过已写完的字节缓冲区
+     */
+    private void skip() {
+        while (offset < buffers.length && !buffers[offset].hasRemaining()) {
+            offset++;
+        }
+    }
+}
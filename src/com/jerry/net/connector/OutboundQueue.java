@@ -0,0 +1,283 @@
+package com.jerry.net.connector;
+
+import com.jerry.utils.ChannelUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Socket会话的待写入响应队列
+ * 持有执行权的线程按处理顺序追加响应，同一时刻只有一个线程写入通道
+ * <p>
+ * 写入时将队首连续的多个响应合并为一次聚集写入
+ * 单次写入最多尝试{@link #WRITE_SPIN}次，通道写满后交由异步写线程继续写入
+ * <p>
+ * 队列中未写入的字节数超过高水位时挂起会话，不再处理和读取新请求
+ * 回落到低水位(高水位的一半)以下后恢复
+ * 连接器全部会话的未写入字节数超过总上限时，积压超过低水位的会话同样被挂起
+ * <p>
+ * 同一会话的流水线请求的响应先在队列中积累，
+ * 流水线排空或积累到{@link #COALESCE_BYTES}后再一并写入，减少系统调用次数
+ * <p>
+ * 会话的最后一个响应写完后队列进入结束状态，由写入线程关闭连接
+ */
+final class OutboundQueue {
+
+    /**
+     * 合并写入的字节数阀值
+     */
+    static final long COALESCE_BYTES = 1024 * 16;            //default 16K
+
+    /**
+     * 单次写入的最大尝试次数
+     */
+    static final int WRITE_SPIN = 16;
+
+    /**
+     * 单次聚集写入的最大字节缓冲区数
+     */
+    static final int MAX_GATHER = 64;
+
+    /**
+     * 挂起会话的未写入字节数
+     */
+    private final long highWater;
+
+    /**
+     * 恢复会话的未写入字节数
+     */
+    private final long lowWater;
+
+    /**
+     * 连接器全部会话的未写入字节数
+     */
+    private final AtomicLong total;
+
+    /**
+     * 连接器全部会话的未写入字节数上限
+     * 为{@code 0}表示不限制
+     */
+    private final long totalLimit;
+
+    /**
+     * 待写入响应
+     */
+    private final Queue<Outbound> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 未写入的字节数
+     */
+    private final AtomicLong bytes = new AtomicLong();
+
+    /**
+     * 最近一次写入进展的时间(纳秒)
+     * 队列由空变为非空或有字节写入时更新
+     */
+    private volatile long progressTime;
+
+    /**
+     * 会话的最后一个响应是否已写完
+     */
+    private volatile boolean finished;
+
+    /**
+     * 写入权标识
+     * 为{@code true}表示已有线程负责写入该队列
+     */
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+
+    /**
+     * 会话是否因积压过多而挂起
+     */
+    private final AtomicBoolean suspended = new AtomicBoolean(false);
+
+    /**
+     * 聚集写入使用的字节缓冲区数组
+     * 仅允许持有写入权的线程访问
+     */
+    private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+
+    /**
+     * @param highWater  挂起会话的未写入字节数
+     * @param total      连接器全部会话的未写入字节数
+     * @param totalLimit 连接器全部会话的未写入字节数上限，为{@code 0}表示不限制
+     */
+    OutboundQueue(long highWater, AtomicLong total, long totalLimit) {
+        this.highWater = highWater;
+        this.lowWater = highWater / 2;
+        this.total = total;
+        this.totalLimit = totalLimit;
+    }
+
+    /**
+     * 追加待写入响应
+     * 仅允许持有会话执行权的线程调用
+     *
+     * @param outbound 待写入响应
+     * @return 是否应挂起会话
+     */
+    boolean offer(Outbound outbound) {
+        long remaining = outbound.remaining();
+        queue.offer(outbound);
+        long current = bytes.addAndGet(remaining);
+        if (current == remaining) {
+            progressTime = System.nanoTime();
+        }
+        long sum = total.addAndGet(remaining);
+        return current > highWater
+                || totalLimit > 0 && sum > totalLimit && current > lowWater;
+    }
+
+    /**
+     * 将队首的响应写入通道
+     * 仅允许持有写入权的线程调用
+     *
+     * @param channel IO通道
+     * @return 有效的写入字节数
+     * @throws IOException 向通道中写入数据失败
+     */
+    long flush(GatheringByteChannel channel) throws IOException {
+        long total = 0;
+        for (int spin = 0; spin < WRITE_SPIN && !queue.isEmpty(); spin++) {
+            //合并连续的响应，文件区域只能单独写入
+            int count = 0;
+            for (Outbound outbound : queue) {
+                count = outbound.gather(gather, count);
+                if (count == MAX_GATHER || outbound.hasRegion()) {
+                    break;
+                }
+            }
+            long writeBytes;
+            try {
+                writeBytes = count == 0 ? queue.peek().write(channel)
+                        : ChannelUtils.write(channel, gather, 0, count);
+            } finally {
+                Arrays.fill(gather, 0, count, null);
+            }
+            if (writeBytes > 0) {
+                total += writeBytes;
+                bytes.addAndGet(-writeBytes);
+                this.total.addAndGet(-writeBytes);
+                progressTime = System.nanoTime();
+            }
+            Outbound head;
+            while ((head = queue.peek()) != null && !head.hasRemaining()) {
+                queue.poll();
+                if (head.isLast()) {
+                    finished = true;
+                }
+            }
+            if (finished || writeBytes <= 0) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 获取写入权
+     *
+     * @return 是否获得写入权
+     */
+    boolean acquire() {
+        return flushing.compareAndSet(false, true);
+    }
+
+    /**
+     * 释放写入权
+     * 若释放期间有新响应到达则重新获得写入权
+     *
+     * @return 是否重新获得写入权
+     */
+    boolean release() {
+        flushing.set(false);
+        return !queue.isEmpty() && flushing.compareAndSet(false, true);
+    }
+
+    /**
+     * 挂起会话
+     * 仅允许持有会话执行权的线程调用，调用后执行权转交给写入线程
+     */
+    void suspend() {
+        suspended.set(true);
+    }
+
+    /**
+     * 未写入的字节数回落到低水位以下时恢复会话
+     *
+     * @return 是否恢复了会话
+     * 返回{@code true}表示调用者获得会话执行权并负责释放
+     */
+    boolean resume() {
+        return bytes.get() <= lowWater && suspended.compareAndSet(true, false);
+    }
+
+    /**
+     * @return 会话是否被挂起
+     */
+    boolean suspended() {
+        return suspended.get();
+    }
+
+    /**
+     * @return 会话的最后一个响应是否已写完
+     * 返回{@code true}表示持有写入权的线程应关闭连接
+     */
+    boolean finished() {
+        return finished;
+    }
+
+    /**
+     * @return 最近一次写入进展的时间(纳秒)
+     */
+    long progressTime() {
+        return progressTime;
+    }
+
+    /**
+     * @return 积累的字节数是否已达到合并写入阀值
+     */
+    boolean coalesced() {
+        return bytes.get() >= COALESCE_BYTES;
+    }
+
+    /**
+     * @return 是否没有待写入响应
+     */
+    boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    /**
+     * @return 未写入的字节数
+     */
+    long bytes() {
+        return bytes.get();
+    }
+
+    /**
+     * 放弃全部待写入响应并释放文件区域
+     * 仅允许持有写入权的线程调用
+     */
+    void close() throws IOException {
+        IOException exception = null;
+        Outbound outbound;
+        while ((outbound = queue.poll()) != null) {
+            try {
+                outbound.close();
+            } catch (IOException e) {
+                exception = e;
+            }
+        }
+        total.addAndGet(-bytes.getAndSet(0));
+        if (exception != null) {
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.jerry.net.connector;
+
+/**
+ * 过载处理策略枚举
+ * 决定待处理请求数量达到上限时连接器如何处理新到达的请求
+ */
+public enum OverloadPolicy {
+
+    /**
+     * 直接返回预先生成的{@code 503 Service Unavailable}响应
+     * 并通过{@code Retry-After}字段提示客户端稍后重试
+     */
+    SHED,
+
+    /**
+     * 暂停读取当前Socket会话通道
+     * 待处理请求数量回落后恢复读取
+     */
+    PAUSE,
+
+    /**
+     * 阻塞当前Reader线程直到待处理请求数量回落
+     * <p>
+     * 阻塞期间该Reader线程不再读取、分帧或检查超时，
+     * 由其负责的全部Socket会话都会停顿，而不仅是触发过载的会话
+     * 仅适用于连接数少、希望以TCP背压限制客户端的场景，其余场景应使用{@link #PAUSE}
+     */
+    BLOCK
+}
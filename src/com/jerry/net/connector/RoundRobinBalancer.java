@@ -0,0 +1,22 @@
+package com.jerry.net.connector;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 轮询分派策略
+ * 不考虑I/O线程负载，依次分派新连接
+ */
+public class RoundRobinBalancer implements Balancer {
+
+    /**
+     * 轮询索引
+     */
+    private final AtomicInteger rotation = new AtomicInteger(0);
+
+    @Override
+    public int select(List<? extends Load> candidates) {
+        int index = rotation.getAndIncrement() & Integer.MAX_VALUE;
+        return index % candidates.size();
+    }
+}
@@ -0,0 +1,202 @@
+package com.jerry.net.connector;
+
+import com.jerry.net.producer.Producer;
+import com.jerry.net.producer.ReadState;
+import com.jerry.net.request.Request;
+import com.jerry.utils.TimerWheel;
+
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Socket会话
+ * 为每个Socket会话通道维护一条串行执行通道
+ * 同一会话的请求按到达顺序依次处理，不同会话之间可以并行处理
+ */
+final class Session {
+
+    /**
+     * Socket会话通道
+     */
+    private final SocketChannel channel;
+
+    /**
+     * 请求生成器
+     */
+    private final Producer producer;
+
+    /**
+     * 待处理请求队列
+     */
+    private final Queue<Request> requests = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 执行权标识
+     * 为{@code true}表示会话已被调度，同一时刻只有一个线程处理该会话
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    /**
+     * 待写入响应队列
+     */
+    private final OutboundQueue outbounds;
+
+    /**
+     * 最近一次被调度的时间(纳秒)
+     * 用于计算会话等待处理线程的时长
+     */
+    private long scheduledTime;
+
+    /**
+     * 超时定时器
+     * 仅允许读取该会话的线程访问
+     */
+    private final TimerWheel.Timeout<Session> timer = new TimerWheel.Timeout<>(this);
+
+    /**
+     * 最近一次读取到数据的时间(纳秒)
+     */
+    private long readTime;
+
+    /**
+     * 当前未接收完整的请求开始接收的时间(纳秒)
+     */
+    private long requestTime;
+
+    Session(SocketChannel channel, Producer producer, OutboundQueue outbounds) {
+        this.channel = channel;
+        this.producer = producer;
+        this.outbounds = outbounds;
+    }
+
+    /**
+     * @return Socket会话通道
+     */
+    SocketChannel channel() {
+        return channel;
+    }
+
+    /**
+     * @return 请求生成器
+     */
+    Producer producer() {
+        return producer;
+    }
+
+    /**
+     * @return 待写入响应队列
+     */
+    OutboundQueue outbounds() {
+        return outbounds;
+    }
+
+    /**
+     * @return 超时定时器
+     */
+    TimerWheel.Timeout<Session> timer() {
+        return timer;
+    }
+
+    /**
+     * 记录一次读取
+     * 应在生成缓冲区中的全部请求后调用
+     *
+     * @param now      当前时间(纳秒)
+     * @param produced 本次读取是否生成了请求
+     */
+    void touch(long now, boolean produced) {
+        readTime = now;
+        if (producer.readState() == ReadState.IDLE) {
+            requestTime = 0;
+        } else if (produced || requestTime == 0) {
+            requestTime = now;
+        }
+    }
+
+    /**
+     * @return 最近一次读取到数据的时间(纳秒)
+     */
+    long readTime() {
+        return readTime;
+    }
+
+    /**
+     * @return 当前未接收完整的请求开始接收的时间(纳秒)
+     */
+    long requestTime() {
+        return requestTime;
+    }
+
+    /**
+     * @return 会话是否正在被处理或有待处理请求
+     */
+    boolean busy() {
+        return scheduled.get() || !requests.isEmpty();
+    }
+
+    /**
+     * 记录会话被调度的时间
+     *
+     * @param scheduledTime 调度时间(纳秒)
+     */
+    void scheduledTime(long scheduledTime) {
+        this.scheduledTime = scheduledTime;
+    }
+
+    /**
+     * @return 最近一次被调度的时间(纳秒)
+     */
+    long scheduledTime() {
+        return scheduledTime;
+    }
+
+    /**
+     * 向会话递交请求
+     *
+     * @param request 请求对象
+     * @return 是否获得执行权
+     * 返回{@code true}表示调用者应调度该会话
+     */
+    boolean offer(Request request) {
+        requests.offer(request);
+        return scheduled.compareAndSet(false, true);
+    }
+
+    /**
+     * @return 下一个待处理请求
+     * 仅允许持有执行权的线程调用
+     */
+    Request poll() {
+        return requests.poll();
+    }
+
+    /**
+     * @return 下一个待处理请求，但不将其移出队列
+     * 仅允许持有执行权的线程调用
+     */
+    Request peek() {
+        return requests.peek();
+    }
+
+    /**
+     * 释放执行权
+     * 若释放期间有新请求到达则重新获得执行权
+     *
+     * @return 是否重新获得执行权
+     * 返回{@code true}表示调用者应再次调度该会话
+     */
+    boolean release() {
+        scheduled.set(false);
+        return !requests.isEmpty() && scheduled.compareAndSet(false, true);
+    }
+
+    /**
+     * 丢弃全部待处理请求
+     * 待写入响应由负责写入的线程在写入失败时释放
+     */
+    void discard() {
+        requests.clear();
+    }
+}
@@ -2,14 +2,16 @@ package com.jerry.net.producer;
 
 import com.jerry.net.request.HttpRequest;
 import com.jerry.net.request.Request;
+import com.jerry.extend.BufferAble;
 import com.jerry.extend.CodeAble;
-import com.jerry.utils.buffer.ByteBuff;
+import com.jerry.utils.buffer.AbstractBuff;
+import com.jerry.utils.buffer.BuffAllocator;
+import com.jerry.utils.buffer.CompositeBuff;
 import com.jerry.logger.LogAble;
 import com.jerry.logger.LogStyle;
 import com.jerry.logger.LogUtils;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -18,15 +20,48 @@ import java.util.logging.Logger;
 /**
  * HTTP协议请求生成器工厂
  */
-public final class HttpProducerFactory implements ProducerFactory, LogAble, CodeAble {
+public final class HttpProducerFactory implements ProducerFactory, LogAble, CodeAble, BufferAble {
 
     private final static Logger logger
             = Logger.getLogger(HttpProducerFactory.class.getSimpleName());
 
+    /**
+     * 单次读取的初始字节数
+     */
+    private static final int INITIAL_RECEIVE = 1024;
+
     private static boolean logSetup = false;
 
     private Charset charset;
 
+    /**
+     * 单次读取的最小字节数
+     */
+    private int minReceive = 64;
+
+    /**
+     * 单次读取的最大字节数
+     */
+    private int maxReceive = 1024 * 64;
+
+    /**
+     * 是否延迟解析请求头
+     */
+    private final boolean lazyHeaders;
+
+    public HttpProducerFactory() {
+        this(false);
+    }
+
+    /**
+     * @param lazyHeaders 是否延迟解析请求头
+     *                    为{@code true}时只解析请求行，请求头在首次访问时才解析
+     *                    适用于大部分处理方法不访问请求头的场景
+     */
+    public HttpProducerFactory(boolean lazyHeaders) {
+        this.lazyHeaders = lazyHeaders;
+    }
+
     @Override
     public Producer create() {
         return new Producer() {
@@ -42,14 +77,27 @@ public final class HttpProducerFactory implements ProducerFactory, LogAble, Code
             private String addr;
 
             /**
-             * 临时缓冲区
+             * 分块缓冲区
+             * 仅在有未处理的字节时持有块，空闲连接不占用缓冲区内存
+             * 使用堆外块，从通道读取和分帧扫描都直接在堆外内存上进行
+             */
+            private AbstractBuff buff = new CompositeBuff(BuffAllocator.DEFAULT, true);
+
+            /**
+             * 请求分帧器
+             */
+            private RequestFramer framer = new RequestFramer(buff.maxCapacity());
+
+            /**
+             * 接收字节数预测器
              */
-            private ByteBuffer buffer = ByteBuffer.allocate(1024);
+            private RecvPredictor predictor = new RecvPredictor(minReceive, INITIAL_RECEIVE, maxReceive);
 
             /**
-             * 动态扩容缓冲区
+             * 是否已分帧失败
+             * 分帧失败后无法确定后续请求的边界，不再生成请求，丢弃之后收到的字节流
              */
-            private ByteBuff buff = new ByteBuff();
+            private boolean failed;
 
             @Override
             public SocketChannel channel() {
@@ -58,43 +106,75 @@ public final class HttpProducerFactory implements ProducerFactory, LogAble, Code
 
             @Override
             public int readOnChannel() throws IOException {
-                int count, readBytes;
-                //分段读取字节流
-                while ((count = channel().read(buffer)) > 0) {
-                    buffer.flip();
-                    readBytes = buff.write(buffer);
-                    if (readBytes == 0) {
-                        break;
-                    }
-                    //实际缓存字节数和有效读取字节数不匹配
-                    if (count != readBytes) {
-                        logger.warning(addr +
-                                " : The length of characters written in the" +
-                                " primary and secondary cache is inconsistent.");
-                    }
-                    buffer.clear();
+                int count, size;
+                if (failed) {
+                    return discard();
                 }
+                //直接读入分块缓冲区
+                //未读满说明通道中暂时没有更多数据，不再发起一次必然读不到数据的读取
+                do {
+                    size = predictor.next();
+                    count = buff.read(channel, size);
+                    if (count > 0) {
+                        predictor.record(count);
+                    }
+                } while (count >= size);
                 return count;
             }
 
             @Override
             public Request makeRequest() {
-                if (buff.isEmpty()) {
-                    logger.warning(addr + " : No data was obtained from the channel.");
+                if (failed) {
+                    return null;
+                }
+                int length = framer.frame(buff);
+                if (length == 0) {
+                    //请求尚未接收完整
+                    //保留缓冲区尾部的不完整请求等待下次读取
+                    framer.compact(buff);
+                    if (buff.isEmpty()) {
+                        buff.release();
+                    }
                     return null;
                 }
-                HttpRequest request = new HttpRequest(buff.array());
+                int offset = framer.offset();
+                HttpRequest request;
+                if (length > 0) {
+                    //请求头和请求资源各拷贝一次
+                    int headLength = framer.headLength();
+                    byte[] body = length > headLength
+                            ? buff.array(offset + headLength, length - headLength) : null;
+                    request = new HttpRequest(buff.array(offset, headLength), body);
+                    framer.next(length);
+                } else {
+                    //请求不合法时丢弃已接收的字节流
+                    //请求对象保持解析失败状态，连接器答复后关闭连接
+                    logger.warning(addr + " : Request framing failed.");
+                    request = new HttpRequest(buff.array(offset, buff.readableBytes() - offset));
+                    request.closeAfterResponse(true);
+                    failed = true;
+                    flush();
+                }
                 request.addr(addr);
                 if (charset != null) {
                     request.setCharset(charset);
                 } else {
                     request.setCharset(StandardCharsets.UTF_8);
                 }
-                flush();
-                request.parse();
+                if (length > 0) {
+                    request.parse(lazyHeaders);
+                }
                 return request;
             }
 
+            @Override
+            public ReadState readState() {
+                if (failed || buff.readableBytes() <= framer.offset()) {
+                    return ReadState.IDLE;
+                }
+                return framer.inBody() ? ReadState.BODY : ReadState.HEAD;
+            }
+
             @Override
             public void reset(SocketChannel obj) {
                 channel = obj;
@@ -105,20 +185,35 @@ public final class HttpProducerFactory implements ProducerFactory, LogAble, Code
             public void clear() {
                 addr = null;
                 channel = null;
+                failed = false;
                 flush();
             }
 
+            /**
+             * 读取并丢弃通道中的字节流
+             *
+             * @return 最后一次读取的字节数
+             */
+            private int discard() throws IOException {
+                int count;
+                do {
+                    count = buff.read(channel, maxReceive);
+                    buff.release();
+                } while (count >= maxReceive);
+                return count;
+            }
+
             /**
              * 清空字节流缓冲区
              */
             private void flush() {
-                buff.clear();
-                buffer.clear();
+                buff.release();
+                framer.reset();
             }
 
             @Override
             public int hashCode() {
-                return buffer.hashCode() ^ buff.hashCode();
+                return buff.hashCode();
             }
         };
     }
@@ -136,4 +231,10 @@ public final class HttpProducerFactory implements ProducerFactory, LogAble, Code
     public void setCharset(Charset charset) {
         this.charset = charset;
     }
+
+    @Override
+    public void setReceiveBuffer(int min, int max) {
+        minReceive = min;
+        maxReceive = max;
+    }
 }
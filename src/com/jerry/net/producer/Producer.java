@@ -30,6 +30,19 @@ public interface Producer extends Reusable<SocketChannel> {
      * @return 请求对象
      * 可以在此方法内解析请求
      * 也可以将解析工作移交给{@link Request}对象处理
+     * 一次读取可能包含多个流水线请求
+     * 应重复调用此方法直至返回{@code null}
+     * 返回{@code null}表示缓冲区中已没有完整的请求
+     * 此时应等待通道再次可读
      */
     Request makeRequest();
+
+    /**
+     * @return 请求接收状态
+     * 应在{@link #makeRequest()}返回{@code null}后调用
+     * 默认视为没有未接收完整的请求
+     */
+    default ReadState readState() {
+        return ReadState.IDLE;
+    }
 }
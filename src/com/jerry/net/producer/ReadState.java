@@ -0,0 +1,23 @@
+package com.jerry.net.producer;
+
+/**
+ * 请求接收状态枚举
+ * 连接器据此选择适用的读取超时时间
+ */
+public enum ReadState {
+
+    /**
+     * 缓冲区中没有未接收完整的请求
+     */
+    IDLE,
+
+    /**
+     * 正在接收请求行和请求头
+     */
+    HEAD,
+
+    /**
+     * 请求头已接收完整，正在接收请求资源
+     */
+    BODY
+}
@@ -0,0 +1,113 @@
+package com.jerry.net.producer;
+
+/**
+ * 接收字节数预测器
+ * 根据最近的读取量决定下次从通道读取的字节数
+ * 读满时快速增大，连续两次明显读不满时才缓慢减小
+ * <p>
+ * 参考Netty中AdaptiveRecvByteBufAllocator类的实现
+ * 预测值按2的幂调整，返回时截断到最小和最大字节数之间
+ */
+final class RecvPredictor {
+
+    /**
+     * 读满时增大的步数
+     */
+    private static final int INCREASE = 2;
+
+    /**
+     * 读不满时减小的步数
+     */
+    private static final int DECREASE = 1;
+
+    /**
+     * 预测值位数的上限，保证预测值不溢出
+     */
+    private static final int MAX_SHIFT = 30;
+
+    /**
+     * 单次读取的最小字节数
+     */
+    private final int min;
+
+    /**
+     * 单次读取的最大字节数
+     */
+    private final int max;
+
+    /**
+     * 最小预测值的位数
+     */
+    private final int minShift;
+
+    /**
+     * 最大预测值的位数
+     */
+    private final int maxShift;
+
+    /**
+     * 当前预测值的位数
+     */
+    private int shift;
+
+    /**
+     * 上次读取是否已明显读不满
+     */
+    private boolean decreaseNow = false;
+
+    /**
+     * @param min     单次读取的最小字节数
+     * @param initial 单次读取的初始字节数
+     * @param max     单次读取的最大字节数
+     */
+    RecvPredictor(int min, int initial, int max) {
+        this.min = Math.max(min, 1);
+        this.max = Math.max(max, this.min);
+        //最小值向上取整，最大值向下取整，两端的预测值再由next()截断
+        minShift = Math.min(shift(this.min), MAX_SHIFT);
+        maxShift = Math.max(minShift, Math.min(floorShift(this.max), MAX_SHIFT));
+        shift = Math.min(Math.max(shift(initial), minShift), maxShift);
+    }
+
+    /**
+     * @return 下次读取的字节数，不小于最小字节数且不大于最大字节数
+     */
+    int next() {
+        return Math.min(Math.max(1 << shift, min), max);
+    }
+
+    /**
+     * 记录一次读取量并调整预测值
+     *
+     * @param count 实际读取的字节数
+     */
+    void record(int count) {
+        if (count >= next()) {
+            shift = Math.min(shift + INCREASE, maxShift);
+            decreaseNow = false;
+        } else if (shift > minShift && count <= 1 << (shift - DECREASE)) {
+            if (decreaseNow) {
+                shift = Math.max(shift - DECREASE, minShift);
+                decreaseNow = false;
+            } else {
+                decreaseNow = true;
+            }
+        } else {
+            decreaseNow = false;
+        }
+    }
+
+    /**
+     * @return 不大于指定值的最大2的幂的位数
+     */
+    private static int floorShift(int value) {
+        return 31 - Integer.numberOfLeadingZeros(value);
+    }
+
+    /**
+     * @return 不小于指定值的最小2的幂的位数
+     */
+    private static int shift(int value) {
+        return value <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(value - 1);
+    }
+}
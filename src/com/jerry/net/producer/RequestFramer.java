@@ -0,0 +1,302 @@
+package com.jerry.net.producer;
+
+import com.jerry.utils.buffer.AbstractBuff;
+
+/**
+ * HTTP/1.1协议请求分帧器
+ * 在多次读取之间保存解析进度
+ * 先完整接收请求行和请求头，再按{@code Content-Length}接收请求资源
+ * 每个字节只会被扫描一次
+ * <p>
+ * 支持从同一缓冲区中依次切分出多个流水线请求
+ * 已切分的字节在请求接收不完整时统一丢弃
+ */
+final class RequestFramer {
+
+    /**
+     * 请求行和请求头的最大长度
+     */
+    static final int MAX_HEAD_LENGTH = 1024 * 64;          //default 64K
+
+    /**
+     * 分帧阶段：等待请求行和请求头
+     */
+    private static final int HEAD = 0;
+
+    /**
+     * 分帧阶段：等待请求资源
+     */
+    private static final int BODY = 1;
+
+    /**
+     * 分帧阶段：请求不合法
+     */
+    private static final int FAILED = 2;
+
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final byte COLON = ':';
+    private static final byte SP = ' ';
+    private static final byte HT = '\t';
+
+    private static final byte[] CONTENT_LENGTH = "content-length".getBytes();
+    private static final byte[] TRANSFER_ENCODING = "transfer-encoding".getBytes();
+
+    /**
+     * 请求资源的最大长度
+     */
+    private final int maxBodyLength;
+
+    /**
+     * 当前请求在缓冲区中的起始位置
+     */
+    private int offset = 0;
+
+    /**
+     * 当前分帧阶段
+     */
+    private int phase = HEAD;
+
+    /**
+     * 请求头结束标识的扫描进度
+     */
+    private int scanned = 0;
+
+    /**
+     * 请求行和请求头的长度(包含结尾空行)
+     */
+    private int headLength = 0;
+
+    /**
+     * 请求资源长度
+     */
+    private long contentLength = 0;
+
+    /**
+     * @param maxBodyLength 请求资源的最大长度
+     */
+    RequestFramer(int maxBodyLength) {
+        this.maxBodyLength = maxBodyLength;
+    }
+
+    /**
+     * 检查缓冲区中当前请求是否已接收完整
+     *
+     * @param buff 缓冲区
+     * @return 完整请求的字节数
+     * 返回{@code 0}表示请求尚未接收完整
+     * 返回{@code -1}表示请求不合法
+     */
+    int frame(AbstractBuff buff) {
+        if (phase == HEAD) {
+            skipBlankLines(buff);
+            int end = headEnd(buff);
+            if (end == 0) {
+                if (buff.readableBytes() - offset >= MAX_HEAD_LENGTH) {
+                    phase = FAILED;
+                }
+            } else {
+                headLength = end;
+                phase = parseHead(buff) ? BODY : FAILED;
+            }
+        }
+        if (phase == BODY) {
+            long length = headLength + contentLength;
+            return buff.readableBytes() - offset >= length ? (int) length : 0;
+        }
+        return phase == FAILED ? -1 : 0;
+    }
+
+    /**
+     * @return 当前请求在缓冲区中的起始位置
+     */
+    int offset() {
+        return offset;
+    }
+
+    /**
+     * @return 当前请求的请求行和请求头长度
+     * 仅在{@link #frame(AbstractBuff)}返回完整请求的字节数后有效
+     */
+    int headLength() {
+        return headLength;
+    }
+
+    /**
+     * @return 是否已接收完整的请求头，正在等待请求资源
+     */
+    boolean inBody() {
+        return phase == BODY;
+    }
+
+    /**
+     * 跳过已切分的请求并开始接收下一个请求
+     *
+     * @param length 已切分请求的字节数
+     */
+    void next(int length) {
+        offset += length;
+        phase = HEAD;
+        scanned = 0;
+        headLength = 0;
+        contentLength = 0;
+    }
+
+    /**
+     * 丢弃缓冲区中已切分的字节
+     * 未接收完整的请求将前移至缓冲区起始位置
+     *
+     * @param buff 缓冲区
+     */
+    void compact(AbstractBuff buff) {
+        if (offset > 0) {
+            buff.discard(offset);
+            offset = 0;
+        }
+    }
+
+    /**
+     * 重置分帧状态
+     */
+    void reset() {
+        offset = 0;
+        next(0);
+    }
+
+    /**
+     * 丢弃请求行之前的空行
+     */
+    private void skipBlankLines(AbstractBuff buff) {
+        if (scanned != 0) {
+            return;
+        }
+        int limit = buff.readableBytes();
+        int pos = offset;
+        while (pos < limit) {
+            byte chr = buff.get(pos);
+            if (chr != CR && chr != LF) {
+                break;
+            }
+            pos++;
+        }
+        offset = pos;
+    }
+
+    /**
+     * 从上次扫描的位置继续查找请求头结束标识
+     *
+     * @return 请求头结束位置
+     * 返回{@code 0}表示请求头尚未接收完整
+     */
+    private int headEnd(AbstractBuff buff) {
+        int base = offset;
+        int limit = Math.min(buff.readableBytes(), base + MAX_HEAD_LENGTH);
+        int pos = base + scanned;
+        while (pos < limit) {
+            //直接跳到下一个换行符
+            pos = buff.indexOf(pos, limit, LF);
+            if (pos == -1) {
+                pos = limit;
+                break;
+            }
+            if (pos + 1 >= limit) {
+                break;
+            }
+            byte next = buff.get(pos + 1);
+            if (next == LF) {
+                return pos + 2 - base;
+            }
+            if (next == CR) {
+                if (pos + 2 >= limit) {
+                    break;
+                }
+                if (buff.get(pos + 2) == LF) {
+                    return pos + 3 - base;
+                }
+            }
+            pos++;
+        }
+        scanned = pos - base;
+        return 0;
+    }
+
+    /**
+     * 从请求头中获取分帧所需的字段
+     *
+     * @return 请求头是否合法
+     */
+    private boolean parseHead(AbstractBuff buff) {
+        long length = -1;
+        int pos = offset;
+        int limit = offset + headLength;
+        while (pos < limit) {
+            //定位当前行的行尾
+            int end = buff.indexOf(pos, limit, LF);
+            if (end == -1) {
+                end = limit;
+            }
+            int colon = buff.indexOf(pos, end, COLON);
+            if (colon != -1) {
+                if (matches(buff, pos, colon, CONTENT_LENGTH)) {
+                    long value = parseLength(buff, colon + 1, end);
+                    //重复且不一致的请求资源长度视为请求不合法
+                    if (value < 0 || (length != -1 && length != value)) {
+                        return false;
+                    }
+                    length = value;
+                } else if (matches(buff, pos, colon, TRANSFER_ENCODING)) {
+                    //暂不支持分块传输编码
+                    return false;
+                }
+            }
+            pos = end + 1;
+        }
+        contentLength = length == -1 ? 0 : length;
+        return contentLength <= maxBodyLength - headLength;
+    }
+
+    /**
+     * 忽略大小写比较请求头字段名
+     */
+    private static boolean matches(AbstractBuff buff, int from, int to, byte[] name) {
+        if (to - from != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            byte chr = buff.get(from + i);
+            if (chr >= 'A' && chr <= 'Z') {
+                chr += 'a' - 'A';
+            }
+            if (chr != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 解析请求资源长度
+     *
+     * @return 请求资源长度
+     * 返回{@code -1}表示字段值不合法
+     */
+    private static long parseLength(AbstractBuff buff, int from, int to) {
+        long value = 0;
+        int digits = 0;
+        boolean tail = false;
+        for (int i = from; i < to; i++) {
+            byte chr = buff.get(i);
+            if (chr >= '0' && chr <= '9') {
+                if (tail || ++digits > 18) {
+                    return -1;
+                }
+                value = value * 10 + (chr - '0');
+            } else if (chr == SP || chr == HT || chr == CR) {
+                tail = digits > 0;
+            } else {
+                return -1;
+            }
+        }
+        return digits == 0 ? -1 : value;
+    }
+}
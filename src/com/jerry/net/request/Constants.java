@@ -16,12 +16,21 @@ final class Constants {
     /**
      * 特殊字符集
      */
-    static final char QUESTION = '?';
-    static final char COLON    = ':';
-    static final char CR       = '\r';
-    static final char HT       = '\t';
-    static final char SP       = ' ';
-    static final char LF       = '\n';
-    static final char A        = 'A';
-    static final char Z        = 'Z';
+    static final byte QUESTION = '?';
+    static final byte COLON    = ':';
+    static final byte CR       = '\r';
+    static final byte HT       = '\t';
+    static final byte SP       = ' ';
+    static final byte LF       = '\n';
+    static final byte A        = 'A';
+    static final byte Z        = 'Z';
+    static final byte SEMI     = ';';
+
+    /**
+     * 常用的请求方法和协议版本
+     * 解析时按字节匹配，匹配成功则直接使用常量，不再创建字符串
+     */
+    static final String[] METHODS = {"GET", "POST", "PUT", "DELETE",
+            "HEAD", "OPTIONS", "PATCH", "TRACE", "CONNECT"};
+    static final String[] PROTOCOLS = {"HTTP/1.1", "HTTP/1.0"};
 }
@@ -0,0 +1,133 @@
+package com.jerry.net.request;
+
+/**
+ * 常用请求头字段名枚举
+ * 解析时按字节忽略大小写匹配字段名，匹配成功的字段存入以序号为索引的数组，
+ * 查找时无需计算哈希值，也无需创建字段名字符串
+ */
+public enum HttpHeader {
+
+    HOST("Host"),
+    CONNECTION("Connection"),
+    KEEP_ALIVE("Keep-Alive"),
+    USER_AGENT("User-Agent"),
+    ACCEPT("Accept"),
+    ACCEPT_ENCODING("Accept-Encoding"),
+    ACCEPT_LANGUAGE("Accept-Language"),
+    ACCEPT_CHARSET("Accept-Charset"),
+    CONTENT_TYPE("Content-Type"),
+    CONTENT_LENGTH("Content-Length"),
+    CONTENT_ENCODING("Content-Encoding"),
+    TRANSFER_ENCODING("Transfer-Encoding"),
+    CACHE_CONTROL("Cache-Control"),
+    PRAGMA("Pragma"),
+    IF_NONE_MATCH("If-None-Match"),
+    IF_MODIFIED_SINCE("If-Modified-Since"),
+    IF_MATCH("If-Match"),
+    IF_RANGE("If-Range"),
+    RANGE("Range"),
+    REFERER("Referer"),
+    ORIGIN("Origin"),
+    COOKIE("Cookie"),
+    AUTHORIZATION("Authorization"),
+    UPGRADE("Upgrade"),
+    EXPECT("Expect"),
+    X_FORWARDED_FOR("X-Forwarded-For"),
+    X_REQUESTED_WITH("X-Requested-With");
+
+    /**
+     * 按字段名长度分组的枚举值
+     */
+    private static final HttpHeader[][] BY_LENGTH;
+
+    static {
+        int max = 0;
+        for (HttpHeader header : values()) {
+            max = Math.max(max, header.name.length());
+        }
+        int[] counts = new int[max + 1];
+        for (HttpHeader header : values()) {
+            counts[header.name.length()]++;
+        }
+        BY_LENGTH = new HttpHeader[max + 1][];
+        for (int i = 0; i <= max; i++) {
+            BY_LENGTH[i] = new HttpHeader[counts[i]];
+            counts[i] = 0;
+        }
+        for (HttpHeader header : values()) {
+            int length = header.name.length();
+            BY_LENGTH[length][counts[length]++] = header;
+        }
+    }
+
+    /**
+     * 规范的字段名
+     */
+    private final String name;
+
+    /**
+     * 小写的字段名字节
+     */
+    private final byte[] lower;
+
+    HttpHeader(String name) {
+        this.name = name;
+        this.lower = name.toLowerCase().getBytes(Constants.charset);
+    }
+
+    /**
+     * @return 规范的字段名
+     */
+    public String headerName() {
+        return name;
+    }
+
+    /**
+     * 按字节忽略大小写匹配字段名
+     *
+     * @param bytes 字节流
+     * @param start 字段名起始位置
+     * @param end   字段名结束位置
+     * @return 匹配的枚举值，未匹配返回{@code null}
+     */
+    public static HttpHeader match(byte[] bytes, int start, int end) {
+        int length = end - start;
+        if (length >= BY_LENGTH.length) {
+            return null;
+        }
+        for (HttpHeader header : BY_LENGTH[length]) {
+            byte[] lower = header.lower;
+            int i = 0;
+            while (i < length && toLower(bytes[start + i]) == lower[i]) {
+                i++;
+            }
+            if (i == length) {
+                return header;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 忽略大小写匹配字段名
+     *
+     * @param name 字段名
+     * @return 匹配的枚举值，未匹配返回{@code null}
+     */
+    public static HttpHeader of(String name) {
+        int length = name.length();
+        if (length >= BY_LENGTH.length) {
+            return null;
+        }
+        for (HttpHeader header : BY_LENGTH[length]) {
+            if (header.name.equalsIgnoreCase(name)) {
+                return header;
+            }
+        }
+        return null;
+    }
+
+    private static byte toLower(byte b) {
+        return b >= Constants.A && b <= Constants.Z ? (byte) (b + 32) : b;
+    }
+}
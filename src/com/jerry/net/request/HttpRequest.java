@@ -1,13 +1,25 @@
 package com.jerry.net.request;
 
 import com.jerry.extend.CodeAble;
+import com.jerry.utils.ByteScanner;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.util.*;
 
 /**
  * HTTP协议请求默认实现
  * 参考tomcat的请求解析方式
+ * <p>
+ * 解析时只记录各部分在字节流中的位置，不创建任何字符串
+ * 请求行各部分和请求头在首次访问时才转换为字符串并缓存
+ * <p>
+ * 延迟解析请求头时只解析请求行并记录请求头各行的位置，
+ * 首次访问请求头时才逐行解析字段名和字段值
+ * <p>
+ * 请求头字段名忽略大小写
+ * 常用字段按{@link HttpHeader}的序号直接定位，其余字段存入映射表
  */
 public final class HttpRequest extends SimpleRequest implements CodeAble {
 
@@ -41,10 +53,68 @@ public final class HttpRequest extends SimpleRequest implements CodeAble {
      */
     private Map<String, String> argsMap;
 
+    /**
+     * 请求参数解码器
+     * 首次访问请求参数时生成
+     */
+    private QueryString query;
+
     /**
      * 请求头字段映射表
+     * 首次访问时生成，字段名忽略大小写
+     */
+    private Map<String, List<String>> headers;
+
+    /**
+     * 常用请求头字段的序号
+     * 以{@link HttpHeader}的序号为索引，为{@code 0}表示不存在，否则为字段序号加一
+     * 重复的字段以最后一个为准
+     */
+    private int[] known;
+
+    /**
+     * 常用请求头字段值集合
+     * 以{@link HttpHeader}的序号为索引，首次访问时生成
+     */
+    private List<String>[] knownValues;
+
+    /**
+     * 非常用请求头字段映射表
+     * 首次访问时生成，字段名忽略大小写
+     */
+    private Map<String, List<String>> others;
+
+    /**
+     * 请求行各部分在字节流中的位置
+     * 请求参数起始位置为{@code -1}表示没有请求参数
      */
-    private Map<String, List<String>> headers = new HashMap<>();
+    private int methodStart, methodEnd;
+    private int urlStart, urlEnd;
+    private int argsStart = -1, argsEnd;
+    private int protocolStart, protocolEnd;
+
+    /**
+     * 请求头字段在字节流中的位置
+     * 每个字段依次记录字段名起止位置和字段值起止位置
+     */
+    private int[] fields;
+
+    /**
+     * 请求头字段数量
+     */
+    private int fieldCount;
+
+    /**
+     * 解析期间使用的字节流视图
+     * 按本机字节序每次读取8个字节查找分隔符，解析结束后释放
+     */
+    private ByteBuffer view;
+
+    /**
+     * 请求头是否尚未逐行解析
+     * 为{@code true}时每个字段只记录了所在行的起止位置
+     */
+    private boolean lazyFields;
 
     /**
      * 请求资源
@@ -55,6 +125,18 @@ public final class HttpRequest extends SimpleRequest implements CodeAble {
         this.bytes = bytes;
     }
 
+    /**
+     * 请求头和请求资源已分离时使用
+     * 解析时不再拷贝请求资源
+     *
+     * @param head 请求行和请求头字节流
+     * @param body 请求资源
+     */
+    public HttpRequest(byte[] head, byte[] body) {
+        this.bytes = head;
+        this.body = body;
+    }
+
     /**
      * @return 请求行请求方法
      */
@@ -62,6 +144,9 @@ public final class HttpRequest extends SimpleRequest implements CodeAble {
         if (failedParsing()) {
             throw new IllegalOperationException();
         }
+        if (method == null) {
+            method = makeString(Constants.METHODS, methodStart, methodEnd);
+        }
         return method;
     }
 
@@ -72,9 +157,23 @@ public final class HttpRequest extends SimpleRequest implements CodeAble {
         if (failedParsing()) {
             throw new IllegalOperationException();
         }
+        if (protocol == null) {
+            protocol = makeString(Constants.PROTOCOLS, protocolStart, protocolEnd);
+        }
         return protocol;
     }
 
+    @Override
+    public String url() {
+        if (failedParsing()) {
+            throw new IllegalOperationException();
+        }
+        if (url == null) {
+            url = makeString(urlStart, urlEnd - urlStart);
+        }
+        return url;
+    }
+
     /**
      * @return 请求参数
      */
@@ -82,11 +181,15 @@ public final class HttpRequest extends SimpleRequest implements CodeAble {
         if (failedParsing()) {
             throw new IllegalOperationException();
         }
+        if (args == null && argsStart != -1) {
+            args = makeString(argsStart, argsEnd - argsStart);
+        }
         return args;
     }
 
     /**
-     * @return 请求参数映射表
+     * @return 已解码的请求参数映射表，同名参数只保留最后一个参数值
+     * 需要全部参数值时使用{@link #parameters()}
      */
     public Map<String, String> argsMap() {
         if (failedParsing()) {
@@ -94,11 +197,55 @@ public final class HttpRequest extends SimpleRequest implements CodeAble {
         }
         //懒加载模式
         if (argsMap == null) {
-            argsMap = parseArgs();
+            Map<String, String> argsMap = new LinkedHashMap<>();
+            for (Map.Entry<String, List<String>> entry : parameters().entrySet()) {
+                List<String> values = entry.getValue();
+                argsMap.put(entry.getKey(), values.get(values.size() - 1));
+            }
+            this.argsMap = argsMap;
         }
         return argsMap;
     }
 
+    /**
+     * @return 已解码的请求参数映射表，同名参数按出现顺序保留全部参数值
+     */
+    public Map<String, List<String>> parameters() {
+        return query().map();
+    }
+
+    /**
+     * 获取已解码的参数值集合
+     *
+     * @param name 参数名
+     * @return 与参数名对应的参数值集合
+     */
+    public List<String> parameters(String name) {
+        return parameters().get(name);
+    }
+
+    /**
+     * 获取已解码的参数值
+     *
+     * @param name 参数名
+     * @return 第一个同名参数的参数值
+     */
+    public String parameter(String name) {
+        List<String> values = parameters(name);
+        return values == null ? null : values.get(0);
+    }
+
+    /**
+     * 获取未解码的参数值
+     * 返回的只读视图与请求字节流共享内容，不拷贝字节
+     *
+     * @param name 参数名
+     * @return 第一个同名参数未解码的参数值
+     */
+    public ByteBuffer rawParameter(String name) {
+        return query().raw(name);
+    }
+
     /**
      * @return 请求行
      */
@@ -107,52 +254,94 @@ public final class HttpRequest extends SimpleRequest implements CodeAble {
             throw new IllegalOperationException();
         }
         StringBuilder line = new StringBuilder();
-        if (args == null) {
-            line.append(String.format("%s %s %s", method, url(), protocol));
+        if (args() == null) {
+            line.append(String.format("%s %s %s", method(), url(), protocol()));
         } else {
-            line.append(String.format("%s %s?%s %s", method, url(), args, protocol));
+            line.append(String.format("%s %s?%s %s", method(), url(), args(), protocol()));
         }
         return line.toString();
     }
 
     /**
-     * @return 请求头字段映射表
+     * @return 请求头字段映射表，字段名忽略大小写
      */
     public Map<String, List<String>> headersMap() {
         if (failedParsing()) {
             throw new IllegalOperationException();
         }
+        //懒加载模式
+        if (headers == null) {
+            headers = parseHeaders(false);
+        }
         return headers;
     }
 
     /**
      * 获取请求头字段值集合
      *
-     * @param key 请求头字段名
+     * @param key 请求头字段名，忽略大小写
      * @return 与字段名对应的字段值集合
      */
     public List<String> headers(String key) {
         if (failedParsing()) {
             throw new IllegalOperationException();
         }
-        return headers.get(key);
+        HttpHeader header = HttpHeader.of(key);
+        if (header != null) {
+            return headers(header);
+        }
+        if (others == null) {
+            others = parseHeaders(true);
+        }
+        return others.get(key);
     }
 
     /**
-     * 获取请求头字段值
+     * 获取常用请求头字段值集合
      *
-     * @param key 请求头字段名
-     * @return 与字段名对应的字段值
+     * @param header 请求头字段名
+     * @return 与字段名对应的字段值集合
      */
-    public String header(String key) {
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<String> headers(HttpHeader header) {
         if (failedParsing()) {
             throw new IllegalOperationException();
         }
-        List<String> values = headers.get(key);
-        if (values != null && values.size() == 1) {
-            return values.get(0);
+        int index = header.ordinal();
+        if (known == null) {
+            indexHeaders();
         }
-        return null;
+        if (known[index] == 0) {
+            return null;
+        }
+        if (knownValues == null) {
+            knownValues = new List[known.length];
+        }
+        if (knownValues[index] == null) {
+            int i = (known[index] - 1) * 4;
+            knownValues[index] = parseValue(fields[i + 2], fields[i + 3] - fields[i + 2]);
+        }
+        return knownValues[index];
+    }
+
+    /**
+     * 获取请求头字段值
+     *
+     * @param key 请求头字段名，忽略大小写
+     * @return 与字段名对应的字段值
+     */
+    public String header(String key) {
+        return single(headers(key));
+    }
+
+    /**
+     * 获取常用请求头字段值
+     *
+     * @param header 请求头字段名
+     * @return 与字段名对应的字段值
+     */
+    public String header(HttpHeader header) {
+        return single(headers(header));
     }
 
     /**
@@ -162,63 +351,63 @@ public final class HttpRequest extends SimpleRequest implements CodeAble {
         if (failedParsing()) {
             throw new IllegalOperationException();
         }
-        return headers.keySet();
+        return headersMap().keySet();
     }
 
     /**
      * @return 请求资源类型
      */
     public String contentType() {
-        return header("Content-Type");
+        return header(HttpHeader.CONTENT_TYPE);
     }
 
     /**
      * @return 请求资源长度
      */
     public String contentLength() {
-        return header("Content-Length");
+        return header(HttpHeader.CONTENT_LENGTH);
     }
 
     /**
      * @return 请求资源编码方式
      */
     public List<String> contentEncoding() {
-        return headers.get("Content-Encoding");
+        return headers(HttpHeader.CONTENT_ENCODING);
     }
 
     /**
      * @return 缓存控制策略
      */
     public String cacheControl() {
-        return header("Cache-Control");
+        return header(HttpHeader.CACHE_CONTROL);
     }
 
     /**
      * @return 本地缓存标识
      */
     public String eTag() {
-        return header("If-None-Match");
+        return header(HttpHeader.IF_NONE_MATCH);
     }
 
     /**
      * @return 用户标识
      */
     public List<String> userAgent() {
-        return headers.get("User-Agent");
+        return headers(HttpHeader.USER_AGENT);
     }
 
     /**
      * @return 请求来源
      */
     public String referer() {
-        return header("Referer");
+        return header(HttpHeader.REFERER);
     }
 
     /**
      * @return 客户端主机信息
      */
     public String host() {
-        return header("Host");
+        return header(HttpHeader.HOST);
     }
 
     /**
@@ -229,9 +418,9 @@ public final class HttpRequest extends SimpleRequest implements CodeAble {
             throw new IllegalOperationException();
         }
         StringBuilder headers = new StringBuilder();
-        for (String key : this.headers.keySet()) {
+        for (String key : headersMap().keySet()) {
             headers.append(key).append(": ");
-            for (String value : this.headers.get(key)) {
+            for (String value : headersMap().get(key)) {
                 headers.append(value).append("; ");
             }
             headers.delete(headers.length() - 2, headers.length());
@@ -252,7 +441,20 @@ public final class HttpRequest extends SimpleRequest implements CodeAble {
      * 解析请求并设置请求解析状态
      */
     public void parse() {
+        parse(false);
+    }
+
+    /**
+     * 解析请求并设置请求解析状态
+     * 是否延迟解析请求头不影响请求解析状态，同一字节流在两种模式下的解析结果相同
+     *
+     * @param lazyHeaders 是否延迟解析请求头
+     */
+    public void parse(boolean lazyHeaders) {
+        lazyFields = lazyHeaders;
+        view = ByteBuffer.wrap(bytes).order(ByteOrder.nativeOrder());
         state = parseRequest();
+        view = null;
     }
 
     @Override
@@ -262,6 +464,7 @@ public final class HttpRequest extends SimpleRequest implements CodeAble {
 
     /**
      * 逐字节解析请求
+     * 只记录各部分的位置，不创建字符串
      */
     private boolean parseRequest() {
         byte[] bytes = this.bytes;
@@ -270,7 +473,7 @@ public final class HttpRequest extends SimpleRequest implements CodeAble {
         //去除行首空白字符
         byte chr;
         do {
-            if (pos > limit) {
+            if (pos >= limit) {
                 return false;
             }
             chr = bytes[pos++];
@@ -284,7 +487,8 @@ public final class HttpRequest extends SimpleRequest implements CodeAble {
                 return false;
             }
             if (bytes[pos] == Constants.SP || bytes[pos] == Constants.HT) {
-                method = makeString(start, pos - start);
+                methodStart = start;
+                methodEnd = pos;
                 space = true;
             }
             pos++;
@@ -318,14 +522,16 @@ public final class HttpRequest extends SimpleRequest implements CodeAble {
             pos++;
         }
         //分别处理有无请求参数的情况
+        urlStart = start;
         if (arg != -1) {
-            url = makeString(start, arg - start);
             if ((arg + 1) == end) {
                 return false;
             }
-            args = makeString(arg + 1, end - arg + 1);
+            urlEnd = arg;
+            argsStart = arg + 1;
+            argsEnd = end;
         } else {
-            url = makeString(start, end - start);
+            urlEnd = end;
         }
         //去除空白字符
         while (space) {
@@ -339,42 +545,28 @@ public final class HttpRequest extends SimpleRequest implements CodeAble {
             }
         }
         //解析请求行协议版本
-        end = 0;
-        start = pos;
-        boolean tail = false;
-        while (!tail) {
-            if (pos > limit) {
-                return false;
-            }
-            if (bytes[pos] == Constants.CR) {
-                end = pos;
-            } else if (bytes[pos] == Constants.LF) {
-                if (end == 0) {
-                    end = pos;
-                }
-                tail = true;
-            }
-            pos++;
+        int lf = lineEnd(pos, limit);
+        if (lf == -1) {
+            return false;
+        }
+        protocolStart = pos;
+        protocolEnd = trimCR(pos, lf);
+        pos = lf + 1;
+        if (lazyFields) {
+            return indexLines(pos, limit);
         }
-        protocol = makeString(start, end - start);
         //循环解析请求头
-        String key;
+        int keyStart, keyEnd;
         while (true) {
             //检查请求头是否结束
             while (true) {
+                if (pos >= limit) {
+                    return false;
+                }
                 if (bytes[pos] == Constants.CR) {
                     pos++;
                 } else if (bytes[pos] == Constants.LF) {
-                    pos++;
-                    if (method.equals("GET") || pos == limit) {
-                        return true;
-                    }
-                    if (pos > limit) {
-                        return false;
-                    }
-                    body = new byte[limit - pos];
-                    System.arraycopy(bytes, pos, body, 0, limit - pos);
-                    return true;
+                    return parseBody(pos + 1, limit);
                 } else {
                     break;
                 }
@@ -392,59 +584,132 @@ public final class HttpRequest extends SimpleRequest implements CodeAble {
                 }
             }
             //解析请求头字段名
-            start = pos;
-            boolean colon = false;
-            while (!colon) {
-                if (failedIndex(pos, limit)) {
-                    return false;
-                }
-                chr = bytes[pos];
-                if (chr == Constants.COLON) {
-                    end = pos;
-                    colon = true;
-                }
-                pos++;
+            //冒号之前出现换行或回车视为请求头不合法
+            int colon = ByteScanner.indexOfAny(view, pos, limit, Constants.COLON, Constants.LF);
+            if (colon == -1 || bytes[colon] != Constants.COLON
+                    || ByteScanner.indexOf(view, pos, colon, Constants.CR) != -1) {
+                return false;
             }
-            key = makeString(start, end - start);
-            //去除空白字符
-            space = true;
-            while (space) {
-                if (failedIndex(pos, limit)) {
-                    return false;
-                }
-                if (bytes[pos] == Constants.SP || bytes[pos] == Constants.HT) {
-                    pos++;
-                } else {
-                    space = false;
-                }
+            keyStart = pos;
+            keyEnd = colon;
+            pos = colon + 1;
+            //去除空白字符，字段值可以为空
+            while (pos < limit && (bytes[pos] == Constants.SP || bytes[pos] == Constants.HT)) {
+                pos++;
             }
             //解析字段名对应的字段值
-            end = 0;
-            start = pos;
-            tail = false;
-            while (!tail) {
-                if (pos > limit) {
-                    return false;
-                }
-                if (bytes[pos] == Constants.CR) {
-                    end = pos;
-                } else if (bytes[pos] == Constants.LF) {
-                    if (end == 0) {
-                        end = pos;
-                    }
-                    tail = true;
-                }
-                pos++;
+            lf = lineEnd(pos, limit);
+            if (lf == -1) {
+                return false;
+            }
+            addField(keyStart, keyEnd, pos, trimCR(pos, lf));
+            pos = lf + 1;
+        }
+    }
+
+    /**
+     * 只记录请求头各行的位置
+     * 只检查每行是否包含冒号，字段名和字段值在首次访问请求头时才解析
+     * 遇到空行时请求头结束
+     *
+     * @param pos 请求头的起始位置
+     */
+    private boolean indexLines(int pos, int limit) {
+        while (pos < limit) {
+            int start = pos;
+            int lf = lineEnd(pos, limit);
+            if (lf == -1) {
+                return false;
+            }
+            int end = trimCR(start, lf);
+            pos = lf + 1;
+            if (end == start) {
+                return parseBody(pos, limit);
+            }
+            //与逐字节解析相同，缺少冒号或冒号之前出现回车视为请求头不合法
+            int colon = ByteScanner.indexOf(view, start, end, Constants.COLON);
+            if (colon == -1 || ByteScanner.indexOf(view, start, colon, Constants.CR) != -1) {
+                return false;
+            }
+            addField(start, end, -1, -1);
+        }
+        return false;
+    }
+
+    /**
+     * @return 行尾换行符的位置，未找到返回{@code -1}
+     */
+    private int lineEnd(int pos, int limit) {
+        return ByteScanner.indexOf(view, pos, limit, Constants.LF);
+    }
+
+    /**
+     * @return 去除行尾回车符后的行结束位置
+     */
+    private int trimCR(int start, int lf) {
+        return lf > start && bytes[lf - 1] == Constants.CR ? lf - 1 : lf;
+    }
+
+    /**
+     * 处理请求头之后的请求资源
+     *
+     * @param pos 请求资源的起始位置
+     */
+    private boolean parseBody(int pos, int limit) {
+        if (isGet()) {
+            body = null;
+            return true;
+        }
+        //请求资源已由构造方法单独提供时字节流到此结束
+        if (pos == limit) {
+            return true;
+        }
+        body = new byte[limit - pos];
+        System.arraycopy(bytes, pos, body, 0, limit - pos);
+        return true;
+    }
+
+    /**
+     * 逐行解析已记录位置的请求头
+     * 将每行的位置替换为字段名和字段值的位置
+     * 各行已在记录位置时检查过冒号
+     */
+    private void parseLines() {
+        byte[] bytes = this.bytes;
+        int[] fields = this.fields;
+        int count = 0;
+        for (int i = 0; i < fieldCount * 4; i += 4) {
+            int start = fields[i];
+            int end = fields[i + 1];
+            while (start < end && (bytes[start] == Constants.SP || bytes[start] == Constants.HT)) {
+                start++;
+            }
+            int colon = start;
+            while (colon < end && bytes[colon] != Constants.COLON) {
+                colon++;
+            }
+            if (colon == end) {
+                continue;
+            }
+            int value = colon + 1;
+            while (value < end && (bytes[value] == Constants.SP || bytes[value] == Constants.HT)) {
+                value++;
             }
-            headers.put(key, parseValue(start, end - start));
+            int j = count++ * 4;
+            fields[j] = start;
+            fields[j + 1] = colon;
+            fields[j + 2] = value;
+            fields[j + 3] = end;
         }
+        fieldCount = count;
+        lazyFields = false;
     }
 
     /**
      * 检查字节流索引合法性
      */
     private boolean failedIndex(int pos, int limit) {
-        if (pos > limit) {
+        if (pos >= limit) {
             return true;
         }
         byte[] bytes = this.bytes;
@@ -452,26 +717,127 @@ public final class HttpRequest extends SimpleRequest implements CodeAble {
     }
 
     /**
-     * 解析请求参数
+     * @return 请求方法是否为GET
      */
-    private Map<String, String> parseArgs() {
-        Map<String, String> argsMap = new HashMap<>();
-        for (String kvp : args.split("&")) {
-            String[] kva = kvp.split("=");
-            argsMap.put(kva[0], kva[1]);
+    private boolean isGet() {
+        byte[] bytes = this.bytes;
+        return methodEnd - methodStart == 3 && bytes[methodStart] == 'G'
+                && bytes[methodStart + 1] == 'E' && bytes[methodStart + 2] == 'T';
+    }
+
+    /**
+     * 记录请求头字段的位置
+     */
+    private void addField(int keyStart, int keyEnd, int valueStart, int valueEnd) {
+        if (fields == null) {
+            fields = new int[32];
+        } else if (fieldCount * 4 == fields.length) {
+            fields = Arrays.copyOf(fields, fields.length * 2);
         }
-        return argsMap;
+        int i = fieldCount++ * 4;
+        fields[i] = keyStart;
+        fields[i + 1] = keyEnd;
+        fields[i + 2] = valueStart;
+        fields[i + 3] = valueEnd;
+    }
+
+    /**
+     * 按字节匹配各请求头字段名并记录常用字段的序号
+     * 不创建任何字符串
+     */
+    private void indexHeaders() {
+        if (lazyFields) {
+            parseLines();
+        }
+        byte[] bytes = this.bytes;
+        int[] fields = this.fields;
+        int[] known = new int[HttpHeader.values().length];
+        for (int i = 0; i < fieldCount; i++) {
+            HttpHeader header = HttpHeader.match(bytes, fields[i * 4], fields[i * 4 + 1]);
+            if (header != null) {
+                known[header.ordinal()] = i + 1;
+            }
+        }
+        this.known = known;
+    }
+
+    /**
+     * 按记录的位置生成请求头字段映射表
+     * 常用字段使用规范的字段名
+     *
+     * @param othersOnly 是否只包含非常用字段
+     */
+    private Map<String, List<String>> parseHeaders(boolean othersOnly) {
+        if (known == null) {
+            indexHeaders();
+        }
+        byte[] bytes = this.bytes;
+        int[] fields = this.fields;
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < fieldCount * 4; i += 4) {
+            HttpHeader header = HttpHeader.match(bytes, fields[i], fields[i + 1]);
+            if (header == null) {
+                headers.put(makeString(fields[i], fields[i + 1] - fields[i]),
+                        parseValue(fields[i + 2], fields[i + 3] - fields[i + 2]));
+            } else if (!othersOnly && known[header.ordinal()] == i / 4 + 1) {
+                headers.put(header.headerName(), headers(header));
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * @return 仅有一个字段值时返回该值，否则返回{@code null}
+     */
+    private static String single(List<String> values) {
+        if (values != null && values.size() == 1) {
+            return values.get(0);
+        }
+        return null;
+    }
+
+    /**
+     * @return 请求参数解码器，首次访问时扫描请求参数
+     */
+    private QueryString query() {
+        if (failedParsing()) {
+            throw new IllegalOperationException();
+        }
+        if (query == null) {
+            int start = argsStart == -1 ? 0 : argsStart;
+            int end = argsStart == -1 ? 0 : argsEnd;
+            query = new QueryString(bytes, start, end,
+                    charset == null ? Constants.charset : charset);
+        }
+        return query;
     }
 
     /**
      * 解析请求头字段值
+     * 按分号分隔为多个值，忽略分号后的空格和末尾的空值
      */
     private List<String> parseValue(int offset, int length) {
         byte[] bytes = this.bytes;
-        String values = new String(bytes, offset, length,
-                charset == null ? Constants.charset : charset);
-        String[] valueArray = values.split("; *");
-        return new ArrayList<>(Arrays.asList(valueArray));
+        List<String> values = new ArrayList<>(1);
+        int end = offset + length;
+        int start = offset;
+        for (int pos = offset; pos < end; pos++) {
+            if (bytes[pos] == Constants.SEMI) {
+                values.add(makeString(start, pos - start));
+                start = pos + 1;
+                while (start < end && bytes[start] == Constants.SP) {
+                    start++;
+                }
+                pos = start - 1;
+            }
+        }
+        values.add(makeString(start, end - start));
+        //与String.split相同，去除末尾的空值
+        int size = values.size();
+        while (size > 1 && values.get(size - 1).isEmpty()) {
+            values.remove(--size);
+        }
+        return values;
     }
 
     /**
@@ -483,6 +849,29 @@ public final class HttpRequest extends SimpleRequest implements CodeAble {
                 charset == null ? Constants.charset : charset);
     }
 
+    /**
+     * 将字节流转换为字符流
+     * 与常量逐字节相同时直接返回常量
+     *
+     * @param known 候选常量，仅包含ASCII字符
+     */
+    private String makeString(String[] known, int start, int end) {
+        byte[] bytes = this.bytes;
+        for (String value : known) {
+            if (value.length() != end - start) {
+                continue;
+            }
+            int i = 0;
+            while (i < value.length() && bytes[start + i] == value.charAt(i)) {
+                i++;
+            }
+            if (i == value.length()) {
+                return value;
+            }
+        }
+        return makeString(start, end - start);
+    }
+
     @Override
     public int hashCode() {
         return Arrays.hashCode(bytes);
@@ -0,0 +1,176 @@
+package com.jerry.net.request;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * 请求参数解码器
+ * 单次扫描请求参数的字节流，记录每个参数名和参数值的位置
+ * 同时标记需要解码的部分，不含转义字符的部分直接转换为字符串
+ * <p>
+ * 支持百分号编码和以{@code +}表示的空格，格式有误的百分号编码按原样保留
+ * 同名参数按出现顺序保留全部参数值，没有{@code =}的参数值为空字符串
+ */
+final class QueryString {
+
+    private static final byte AND = '&';
+    private static final byte EQUALS = '=';
+    private static final byte PERCENT = '%';
+    private static final byte PLUS = '+';
+
+    /**
+     * 请求字节流
+     */
+    private final byte[] bytes;
+
+    /**
+     * 编码字符集
+     */
+    private final Charset charset;
+
+    /**
+     * 参数位置
+     * 每个参数依次记录参数名起止位置和参数值起止位置
+     */
+    private int[] pairs = new int[16];
+
+    /**
+     * 参数数量
+     */
+    private int count;
+
+    /**
+     * 参数映射表
+     * 首次访问时生成
+     */
+    private Map<String, List<String>> map;
+
+    /**
+     * @param bytes   请求字节流
+     * @param start   请求参数起始位置
+     * @param end     请求参数结束位置
+     * @param charset 编码字符集
+     */
+    QueryString(byte[] bytes, int start, int end, Charset charset) {
+        this.bytes = bytes;
+        this.charset = charset;
+        scan(start, end);
+    }
+
+    /**
+     * @return 参数映射表，同名参数按出现顺序保留全部参数值
+     */
+    Map<String, List<String>> map() {
+        if (map == null) {
+            Map<String, List<String>> map = new LinkedHashMap<>();
+            int[] pairs = this.pairs;
+            for (int i = 0; i < count * 4; i += 4) {
+                String name = decode(pairs[i], pairs[i + 1]);
+                String value = decode(pairs[i + 2], pairs[i + 3]);
+                map.computeIfAbsent(name, k -> new ArrayList<>(1)).add(value);
+            }
+            this.map = map;
+        }
+        return map;
+    }
+
+    /**
+     * 获取未解码的参数值
+     * 返回的只读视图与请求字节流共享内容，不拷贝字节
+     *
+     * @param name 已解码的参数名
+     * @return 第一个同名参数未解码的参数值，不存在返回{@code null}
+     */
+    ByteBuffer raw(String name) {
+        int[] pairs = this.pairs;
+        for (int i = 0; i < count * 4; i += 4) {
+            if (name.equals(decode(pairs[i], pairs[i + 1]))) {
+                int start = pairs[i + 2];
+                int end = pairs[i + 3] < 0 ? ~pairs[i + 3] : pairs[i + 3];
+                return ByteBuffer.wrap(bytes, start, end - start).slice().asReadOnlyBuffer();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 单次扫描记录各参数的位置
+     * 以负数的结束位置标记需要解码的部分，空参数和空参数名被忽略
+     */
+    private void scan(int start, int end) {
+        byte[] bytes = this.bytes;
+        int pos = start;
+        while (pos < end) {
+            int nameStart = pos;
+            int nameEnd = -1;
+            boolean nameEscaped = false;
+            boolean escaped = false;
+            while (pos < end && bytes[pos] != AND) {
+                byte chr = bytes[pos];
+                if (chr == EQUALS && nameEnd == -1) {
+                    nameEnd = pos;
+                    nameEscaped = escaped;
+                    escaped = false;
+                } else if (chr == PERCENT || chr == PLUS) {
+                    escaped = true;
+                }
+                pos++;
+            }
+            int valueStart = nameEnd == -1 ? pos : nameEnd + 1;
+            if (nameEnd == -1) {
+                nameEnd = pos;
+                nameEscaped = escaped;
+                escaped = false;
+            }
+            if (nameEnd > nameStart) {
+                add(nameStart, nameEscaped ? ~nameEnd : nameEnd,
+                        valueStart, escaped ? ~pos : pos);
+            }
+            pos++;
+        }
+    }
+
+    /**
+     * 记录参数的位置
+     */
+    private void add(int nameStart, int nameEnd, int valueStart, int valueEnd) {
+        if (count * 4 == pairs.length) {
+            pairs = Arrays.copyOf(pairs, pairs.length * 2);
+        }
+        int i = count++ * 4;
+        pairs[i] = nameStart;
+        pairs[i + 1] = nameEnd;
+        pairs[i + 2] = valueStart;
+        pairs[i + 3] = valueEnd;
+    }
+
+    /**
+     * 解码指定位置的字节
+     * 结束位置为负数时按百分号编码解码，否则直接转换
+     */
+    private String decode(int start, int end) {
+        if (end >= 0) {
+            return new String(bytes, start, end - start, charset);
+        }
+        end = ~end;
+        byte[] bytes = this.bytes;
+        byte[] decoded = new byte[end - start];
+        int length = 0;
+        for (int pos = start; pos < end; pos++) {
+            byte chr = bytes[pos];
+            if (chr == PLUS) {
+                chr = ' ';
+            } else if (chr == PERCENT && pos + 2 < end) {
+                int high = Character.digit(bytes[pos + 1], 16);
+                int low = Character.digit(bytes[pos + 2], 16);
+                if (high != -1 && low != -1) {
+                    chr = (byte) ((high << 4) | low);
+                    pos += 2;
+                }
+            }
+            decoded[length++] = chr;
+        }
+        return new String(decoded, 0, length, charset);
+    }
+}
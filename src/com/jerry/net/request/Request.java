@@ -28,4 +28,12 @@ public interface Request {
      * @return 请求地址
      */
     String url();
+
+    /**
+     * @return 响应写完后是否关闭连接
+     * 请求分帧失败时无法确定下一个请求的边界，必须在答复后关闭连接
+     */
+    default boolean closeAfterResponse() {
+        return false;
+    }
 }
@@ -20,6 +20,11 @@ public abstract class SimpleRequest implements Request {
      */
     protected String url;
 
+    /**
+     * 响应写完后是否关闭连接
+     */
+    private boolean closeAfterResponse;
+
     @Override
     public boolean failedParsing() {
         return !state;
@@ -42,4 +47,18 @@ public abstract class SimpleRequest implements Request {
         }
         return url;
     }
+
+    @Override
+    public boolean closeAfterResponse() {
+        return closeAfterResponse;
+    }
+
+    /**
+     * 设置响应写完后是否关闭连接
+     *
+     * @param closeAfterResponse 为{@code true}时连接器写完响应后关闭连接
+     */
+    public void closeAfterResponse(boolean closeAfterResponse) {
+        this.closeAfterResponse = closeAfterResponse;
+    }
 }
@@ -5,7 +5,9 @@ import com.jerry.extend.CodeAble;
 import com.jerry.logger.LogAble;
 import com.jerry.logger.LogStyle;
 import com.jerry.logger.LogUtils;
+import com.jerry.net.connector.Balancer;
 import com.jerry.net.connector.Connector;
+import com.jerry.net.connector.EventLoopConnector;
 import com.jerry.net.producer.HttpProducerFactory;
 import com.jerry.net.producer.ProducerFactory;
 import com.jerry.agent.processor.HttpProcessor;
@@ -14,6 +16,7 @@ import com.jerry.agent.adapter.Adapter;
 import com.jerry.agent.adapter.DefaultAdapters;
 import com.jerry.agent.valve.*;
 import com.jerry.net.connector.NIOConnector;
+import com.jerry.net.connector.OverloadPolicy;
 import com.jerry.utils.DefaultContentTypes;
 import com.jerry.utils.Platform;
 
@@ -318,11 +321,115 @@ public final class Jerry {
             return this;
         }
 
+        /**
+         * 设置Acceptor线程数量，默认1个
+         * 大于1时各Acceptor通过SO_REUSEPORT绑定同一端口，
+         * 不支持SO_REUSEPORT时退回单个Acceptor
+         */
+        public ConnectorBuilder acceptors(int acceptors) {
+            connector.acceptors(acceptors);
+            return this;
+        }
+
+        /**
+         * 设置新连接分派到I/O线程的策略，默认轮询
+         */
+        public ConnectorBuilder balancer(Balancer balancer) {
+            connector.balancer(balancer);
+            return this;
+        }
+
+        /**
+         * 设置单次读取的字节数范围，默认64B~64K
+         * 每个连接在范围内按最近的读取量自适应调整
+         */
+        public ConnectorBuilder receiveBuffer(int min, int max) {
+            connector.receiveBuffer(min, max);
+            return this;
+        }
+
+        /**
+         * 设置未写入响应的字节数上限，单个连接默认1M，全部连接默认不限制
+         * 超过上限时暂停读取对应连接的请求，total为0表示不限制
+         */
+        public ConnectorBuilder outboundLimit(int perConnection, long total) {
+            connector.outboundLimit(perConnection, total);
+            return this;
+        }
+
+        /**
+         * 设置写入超时时间(毫秒)，默认30000
+         * 有未写入的响应且超时没有写入进展时关闭连接
+         */
+        public ConnectorBuilder writeTimeout(long writeTimeout) {
+            connector.writeTimeout(writeTimeout);
+            return this;
+        }
+
+        /**
+         * 设置空闲、请求头和请求体超时时间(毫秒)
+         * 超时检查始终启用，默认分别为60000、20000和60000
+         */
+        public ConnectorBuilder timeouts(long idle, long header, long body) {
+            connector.timeouts(idle, header, body);
+            return this;
+        }
+
+        /**
+         * 设置是否使用虚拟线程处理请求，默认不使用
+         * 当前JVM不支持虚拟线程时退回使用处理线程组
+         */
+        public ConnectorBuilder virtualThreads(boolean virtualThreads) {
+            connector.virtualThreads(virtualThreads);
+            return this;
+        }
+
+        /**
+         * 设置待处理请求数量上限，默认0表示不限制
+         * 达到上限时按过载处理策略处理新到达的请求
+         */
+        public ConnectorBuilder queueCapacity(int queueCapacity) {
+            connector.queueCapacity(queueCapacity);
+            return this;
+        }
+
+        /**
+         * 设置过载处理策略
+         * {@link OverloadPolicy#BLOCK}会阻塞整个Reader线程，
+         * 该线程上的全部会话在过载期间都会停顿
+         */
+        public ConnectorBuilder overloadPolicy(OverloadPolicy overloadPolicy) {
+            connector.overloadPolicy(overloadPolicy);
+            return this;
+        }
+
+        /**
+         * 设置基于排队延迟的准入控制参数(毫秒)，默认不启用
+         * target为0表示不启用，启用时interval必须大于target
+         */
+        public ConnectorBuilder codel(long target, long interval) {
+            connector.codel(target, interval);
+            return this;
+        }
+
         public ConnectorBuilder port(int port) {
             connector.port(port);
             return this;
         }
 
+        /**
+         * 改用事件循环连接器，继承此前设置的全部参数
+         * offloads中的请求地址交由卸载线程处理，
+         * 待处理请求数量上限、过载处理策略和准入控制对其不生效
+         */
+        public ConnectorBuilder eventLoop(String... offloads) {
+            EventLoopConnector eventLoop = new EventLoopConnector();
+            eventLoop.inherit(connector);
+            eventLoop.offload(offloads);
+            connector = eventLoop;
+            return this;
+        }
+
         public Jerry build() {
             if (connector.factory() == null) {
                 connector.factory(new HttpProducerFactory());
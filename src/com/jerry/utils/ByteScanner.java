@@ -0,0 +1,97 @@
+package com.jerry.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 字节查找工具
+ * 以SWAR(SIMD Within A Register)的方式每次读取8个字节，
+ * 通过位运算同时比较8个字节，不足8个字节的部分逐字节比较
+ * <p>
+ * 位运算对每个字节的判断是精确的，不受相邻字节借位的影响，
+ * 因此按缓冲区的字节序即可直接定位第一个匹配的字节
+ */
+public final class ByteScanner {
+
+    private static final long ONES = 0x0101010101010101L;
+
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    private ByteScanner() {
+    }
+
+    /**
+     * 查找字节第一次出现的位置
+     * 使用绝对索引读取，不改变缓冲区的读写指针
+     *
+     * @param buffer 字节缓冲区
+     * @param from   起始索引(包含)
+     * @param to     结束索引(不包含)，不大于缓冲区的limit
+     * @param value  待查找的字节
+     * @return 字节的索引，未找到返回{@code -1}
+     */
+    public static int indexOf(ByteBuffer buffer, int from, int to, byte value) {
+        long pattern = (value & 0xFFL) * ONES;
+        boolean little = buffer.order() == ByteOrder.LITTLE_ENDIAN;
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long found = match(buffer.getLong(i), pattern);
+            if (found != 0) {
+                return i + first(found, little);
+            }
+        }
+        for (; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 查找两个字节中任意一个第一次出现的位置
+     *
+     * @param buffer 字节缓冲区
+     * @param from   起始索引(包含)
+     * @param to     结束索引(不包含)，不大于缓冲区的limit
+     * @param a      待查找的字节
+     * @param b      待查找的字节
+     * @return 字节的索引，未找到返回{@code -1}
+     */
+    public static int indexOfAny(ByteBuffer buffer, int from, int to, byte a, byte b) {
+        long patternA = (a & 0xFFL) * ONES;
+        long patternB = (b & 0xFFL) * ONES;
+        boolean little = buffer.order() == ByteOrder.LITTLE_ENDIAN;
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = buffer.getLong(i);
+            long found = match(word, patternA) | match(word, patternB);
+            if (found != 0) {
+                return i + first(found, little);
+            }
+        }
+        for (; i < to; i++) {
+            byte chr = buffer.get(i);
+            if (chr == a || chr == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return 与模式相同的字节最高位为1，其余位均为0
+     */
+    private static long match(long word, long pattern) {
+        long x = word ^ pattern;
+        return ~(((x & LOW_BITS) + LOW_BITS) | x | LOW_BITS);
+    }
+
+    /**
+     * @return 第一个匹配的字节在8个字节中的位置
+     */
+    private static int first(long found, boolean little) {
+        return (little ? Long.numberOfTrailingZeros(found)
+                : Long.numberOfLeadingZeros(found)) >>> 3;
+    }
+}
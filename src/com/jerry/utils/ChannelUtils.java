@@ -1,7 +1,11 @@
 package com.jerry.utils;
 
 import java.io.IOException;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
 import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.NetworkChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 
@@ -13,6 +17,42 @@ public final class ChannelUtils {
     //通道读写阀值
     private static int NIO_BUFFER_LIMIT = 64 * 1024;
 
+    /**
+     * 端口复用选项
+     * 为{@code null}表示当前JVM不支持
+     */
+    private static final SocketOption<Boolean> SO_REUSEPORT = reusePortOption();
+
+    /**
+     * 为通道启用端口复用
+     * 多个启用端口复用的监听通道可以绑定同一端口，由内核在它们之间分配新连接
+     * 必须在绑定端口之前调用
+     *
+     * @param channel 网络通道
+     * @return 是否启用成功
+     * 返回{@code false}表示当前JVM或操作系统不支持端口复用
+     */
+    public static boolean reusePort(NetworkChannel channel) throws IOException {
+        if (SO_REUSEPORT == null || !channel.supportedOptions().contains(SO_REUSEPORT)) {
+            return false;
+        }
+        channel.setOption(SO_REUSEPORT, true);
+        return true;
+    }
+
+    /**
+     * SO_REUSEPORT需要Java 9及以上版本的支持，因此通过反射获取
+     */
+    @SuppressWarnings("unchecked")
+    private static SocketOption<Boolean> reusePortOption() {
+        try {
+            return (SocketOption<Boolean>) StandardSocketOptions.class
+                    .getField("SO_REUSEPORT").get(null);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
     /**
      * 从通道中读取数据
      *
@@ -39,6 +79,50 @@ public final class ChannelUtils {
                 : IO(null, channel, buffer);
     }
 
+    /**
+     * 以聚集写入的方式向通道中写入多个字节缓冲区
+     * 单次写入的总字节数同样受通道读写阀值的限制
+     *
+     * @param channel IO通道
+     * @param buffers 字节缓冲区数组
+     * @param offset  第一个字节缓冲区的索引
+     * @param length  字节缓冲区的数量
+     * @return 有效的写入字节数
+     */
+    public static long write(GatheringByteChannel channel, ByteBuffer[] buffers,
+                             int offset, int length) throws IOException {
+        long total = 0;
+        int end = offset + length;
+        while (offset < end) {
+            //选取总字节数不超过阀值的一组字节缓冲区
+            int last = offset;
+            long size = 0;
+            while (last < end && size < NIO_BUFFER_LIMIT) {
+                size += buffers[last++].remaining();
+            }
+            ByteBuffer tail = buffers[last - 1];
+            int limit = tail.limit();
+            if (size > NIO_BUFFER_LIMIT) {
+                tail.limit(limit - (int) (size - NIO_BUFFER_LIMIT));
+                size = NIO_BUFFER_LIMIT;
+            }
+            long eff;
+            try {
+                eff = channel.write(buffers, offset, last - offset);
+            } finally {
+                tail.limit(limit);
+            }
+            total += eff;
+            if (eff < size) {
+                break;
+            }
+            while (offset < end && !buffers[offset].hasRemaining()) {
+                offset++;
+            }
+        }
+        return total;
+    }
+
     /**
      * 分段读取/写入数据
      * 避免一次性读写大量数据导致OOM异常
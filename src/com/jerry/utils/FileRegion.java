@@ -0,0 +1,141 @@
+package com.jerry.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 文件区域
+ * 表示文件中一段连续的字节，作为响应资源时不读入内存
+ * 通过{@link FileChannel#transferTo}直接写入通道，
+ * 在支持的平台上由内核完成拷贝(sendfile)
+ * <p>
+ * 记录写入进度以支持分多次写完，写完或关闭后释放文件描述符
+ */
+public final class FileRegion implements Closeable {
+
+    /**
+     * 文件通道
+     */
+    private final FileChannel channel;
+
+    /**
+     * 下一个待写入字节在文件中的位置
+     */
+    private long position;
+
+    /**
+     * 区域结束位置(不包含)
+     */
+    private final long end;
+
+    /**
+     * @param channel  文件通道
+     * @param position 区域起始位置
+     * @param count    区域字节数
+     */
+    public FileRegion(FileChannel channel, long position, long count) {
+        if (position < 0 || count < 0) {
+            throw new IllegalArgumentException(String.format("position: %d; " +
+                    "count: %d; Parameter value error.", position, count));
+        }
+        this.channel = channel;
+        this.position = position;
+        this.end = position + count;
+    }
+
+    /**
+     * 以只读方式打开整个文件
+     *
+     * @param file 本地文件
+     * @return 覆盖整个文件的文件区域
+     * @throws IOException 打开文件失败
+     */
+    public static FileRegion open(File file) throws IOException {
+        FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+        try {
+            return new FileRegion(channel, 0, channel.size());
+        } catch (RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 将剩余字节写入通道
+     * 非阻塞通道可能只写入一部分
+     *
+     * @param target 目标通道
+     * @return 有效的写入字节数
+     * @throws IOException 写入失败或文件在写入期间被截断
+     */
+    public long transferTo(WritableByteChannel target) throws IOException {
+        long count = end - position;
+        if (count <= 0) {
+            return 0;
+        }
+        long writeBytes = channel.transferTo(position, count, target);
+        if (writeBytes == 0 && channel.size() <= position) {
+            throw new IOException("File truncated during transfer.");
+        }
+        position += writeBytes;
+        if (position >= end) {
+            close();
+        }
+        return writeBytes;
+    }
+
+    /**
+     * @return 剩余未写入的字节数
+     */
+    public long remaining() {
+        return end - position;
+    }
+
+    /**
+     * @return 是否仍有未写入的字节
+     */
+    public boolean hasRemaining() {
+        return position < end;
+    }
+
+    /**
+     * 读取剩余字节
+     * 仅用于无法直接写入通道的场合，不改变写入进度
+     *
+     * @return 剩余字节流
+     * @throws IOException 读取失败或剩余字节数超出数组长度限制
+     */
+    public byte[] toBytes() throws IOException {
+        long count = end - position;
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IOException(String.format("File region too large: %d.", count));
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) count);
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int readBytes = channel.read(buffer, offset);
+            if (readBytes < 0) {
+                throw new IOException("File truncated during read.");
+            }
+            offset += readBytes;
+        }
+        return buffer.array();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() +
+                "( position: " + position + " , " +
+                "end: " + end + " )";
+    }
+}
@@ -1,8 +1,12 @@
 package com.jerry.utils;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * 平台工具类
@@ -43,6 +47,22 @@ public final class Platform {
                 props.getProperty("java.home") + "\n";
     }
 
+    /**
+     * @return 为每个任务创建一个虚拟线程的执行器
+     * 虚拟线程需要Java 21及以上版本的支持，因此通过反射获取
+     * 返回{@code null}表示当前JVM不支持虚拟线程
+     */
+    public static ExecutorService virtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException
+                | InvocationTargetException e) {
+            //Java 19/20中未启用预览特性时同样不可用
+            return null;
+        }
+    }
+
     /**
      * @return 本地IP地址
      */
@@ -0,0 +1,197 @@
+package com.jerry.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 哈希时间轮
+ * 按到期时间将定时器散列到环形的槽中，每个时间刻度只检查一个槽
+ * 添加、移除定时器的时间复杂度均为O(1)，与定时器总数无关
+ * <p>
+ * 超过时间轮一圈的到期时间会被截断到一圈以内，
+ * 到期时由调用者重新检查实际期限并重新添加，避免每圈重复遍历远期定时器
+ * <p>
+ * 非线程安全，仅允许所属线程访问
+ *
+ * @param <T> 定时器附件的类型
+ */
+public final class TimerWheel<T> {
+
+    /**
+     * 时间刻度(纳秒)
+     */
+    private final long tick;
+
+    /**
+     * 槽索引掩码
+     */
+    private final int mask;
+
+    /**
+     * 各槽中定时器链表的头节点
+     */
+    private final Timeout<T>[] wheel;
+
+    /**
+     * 时间轮的起始时间(纳秒)
+     */
+    private final long startTime;
+
+    /**
+     * 下一个待检查的时间刻度
+     */
+    private long currentTick = 0;
+
+    /**
+     * @param tick      时间刻度(毫秒)
+     * @param wheelSize 槽数量，向上取整为2的幂
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimerWheel(long tick, int wheelSize) {
+        if (tick <= 0 || wheelSize <= 0 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException(String.format("tick: %d; " +
+                    "wheelSize: %d; Parameter value error.", tick, wheelSize));
+        }
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tick = TimeUnit.MILLISECONDS.toNanos(tick);
+        this.mask = size - 1;
+        this.wheel = new Timeout[size];
+        this.startTime = System.nanoTime();
+    }
+
+    /**
+     * 添加或重新添加定时器
+     * 已添加的定时器先从原来的槽中移除
+     *
+     * @param timeout  定时器
+     * @param deadline 到期时间(纳秒，与{@link System#nanoTime()}可比较)
+     */
+    public void schedule(Timeout<T> timeout, long deadline) {
+        cancel(timeout);
+        long ticks = (deadline - startTime + tick - 1) / tick;
+        //不早于下一个待检查的刻度，不晚于一圈之后
+        ticks = Math.max(ticks, currentTick);
+        ticks = Math.min(ticks, currentTick + mask);
+        timeout.tick = ticks;
+        int index = (int) (ticks & mask);
+        Timeout<T> head = wheel[index];
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        wheel[index] = timeout;
+        timeout.index = index;
+    }
+
+    /**
+     * 移除定时器
+     * 未添加的定时器忽略
+     *
+     * @param timeout 定时器
+     */
+    public void cancel(Timeout<T> timeout) {
+        if (timeout.index < 0) {
+            return;
+        }
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            wheel[timeout.index] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.index = -1;
+    }
+
+    /**
+     * 推进时间轮并处理到期的定时器
+     * 到期的定时器先被移除，处理器可以重新添加
+     *
+     * @param now     当前时间(纳秒)
+     * @param handler 到期处理器，参数为定时器附件
+     * @return 到期的定时器数量
+     */
+    public int advance(long now, Consumer<T> handler) {
+        long target = (now - startTime) / tick;
+        int expired = 0;
+        //长时间未推进时最多检查一圈
+        if (target - currentTick > mask) {
+            currentTick = target - mask;
+        }
+        while (currentTick <= target) {
+            //先推进刻度，处理器重新添加的定时器不会落在当前刻度上
+            long processing = currentTick++;
+            Timeout<T> timeout = wheel[(int) (processing & mask)];
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                if (timeout.tick <= processing) {
+                    cancel(timeout);
+                    handler.accept(timeout.attachment);
+                    expired++;
+                }
+                timeout = next;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * @return 时间刻度(毫秒)
+     */
+    public long tick() {
+        return TimeUnit.NANOSECONDS.toMillis(tick);
+    }
+
+    /**
+     * 定时器
+     * 每个定时器同一时刻最多位于一个槽中，可以反复添加
+     *
+     * @param <T> 附件的类型
+     */
+    public static final class Timeout<T> {
+
+        /**
+         * 附件
+         */
+        private final T attachment;
+
+        /**
+         * 到期的时间刻度
+         */
+        private long tick;
+
+        /**
+         * 所在槽的索引
+         * 为{@code -1}表示未添加
+         */
+        private int index = -1;
+
+        private Timeout<T> prev;
+
+        private Timeout<T> next;
+
+        public Timeout(T attachment) {
+            this.attachment = attachment;
+        }
+
+        /**
+         * @return 附件
+         */
+        public T attachment() {
+            return attachment;
+        }
+
+        /**
+         * @return 是否已添加到时间轮中
+         */
+        public boolean isScheduled() {
+            return index >= 0;
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package com.jerry.utils.buffer;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 
 /**
  * 动态扩容缓冲区抽象实现
  * 参考{@link java.nio.Buffer}的实现
  */
-abstract class AbstractBuff {
+public abstract class AbstractBuff {
 
     /**
      * 默认缓冲区最大容量
@@ -54,7 +56,7 @@ abstract class AbstractBuff {
     /**
      * @return 缓冲区最大容量
      */
-    final int maxCapacity() {
+    final public int maxCapacity() {
         return maxCapacity;
     }
 
@@ -113,6 +115,13 @@ abstract class AbstractBuff {
         return position == 0;
     }
 
+    /**
+     * @return 缓冲区已写字节数
+     */
+    final public int readableBytes() {
+        return position;
+    }
+
     /**
      * 清空缓冲区
      */
@@ -128,8 +137,70 @@ abstract class AbstractBuff {
      */
     abstract public int write(ByteBuffer buffer);
 
+    /**
+     * 从通道中读取数据并直接写入缓冲区
+     *
+     * @param channel IO通道
+     * @return 有效的读取字节数
+     * 返回{@code 0}表示缓冲区已达到最大容量或通道中暂无数据
+     * @throws IOException 从通道中读取数据失败
+     */
+    abstract public int read(ReadableByteChannel channel) throws IOException;
+
+    /**
+     * 从通道中读取至多指定字节数的数据并直接写入缓冲区
+     *
+     * @param channel IO通道
+     * @param size    期望读取的字节数
+     * @return 有效的读取字节数
+     * 返回{@code 0}表示缓冲区已达到最大容量或通道中暂无数据
+     * @throws IOException 从通道中读取数据失败
+     */
+    abstract public int read(ReadableByteChannel channel, int size) throws IOException;
+
+    /**
+     * 清空缓冲区并释放缓冲区持有的内存
+     */
+    abstract public void release();
+
     /**
      * @return 缓冲区已写字节的副本
      */
     abstract public byte[] array();
+
+    /**
+     * 读取缓冲区指定位置的字节
+     *
+     * @param index 字节索引
+     * @return 对应位置的字节
+     */
+    abstract public byte get(int index);
+
+    /**
+     * 在缓冲区指定区间内查找字节
+     *
+     * @param from  起始索引(包含)
+     * @param to    结束索引(不包含)
+     * @param value 待查找的字节
+     * @return 第一个匹配字节的索引
+     * 返回{@code -1}表示未找到
+     */
+    abstract public int indexOf(int from, int to, byte value);
+
+    /**
+     * 获取缓冲区指定区间已写字节的副本
+     *
+     * @param offset 起始索引
+     * @param length 字节数
+     * @return 指定区间字节的副本
+     */
+    abstract public byte[] array(int offset, int length);
+
+    /**
+     * 丢弃缓冲区头部的字节
+     * 剩余的已写字节将前移至缓冲区起始位置
+     *
+     * @param length 丢弃的字节数
+     */
+    abstract public void discard(int length);
 }
@@ -0,0 +1,274 @@
+package com.jerry.utils.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 缓冲区池化分配器
+ * 按2的幂划分容量等级，同一容量等级的缓冲区可以相互复用
+ * 堆内字节数组和堆外字节缓冲区分别池化
+ * <p>
+ * 每个线程持有一个小容量的本地缓存，分配和归还优先在本地缓存中完成
+ * 本地缓存已满或为空时才访问线程共享的全局缓存
+ * 超过最大容量等级的缓冲区不做缓存，直接分配并交由GC回收
+ */
+public final class BuffAllocator {
+
+    /**
+     * 默认分配器
+     */
+    public static final BuffAllocator DEFAULT = new BuffAllocator();
+
+    /**
+     * 最小容量等级
+     */
+    static final int MIN_SHIFT = 6;                          //default 64B
+
+    /**
+     * 最大容量等级
+     */
+    static final int MAX_SHIFT = 20;                         //default 1M
+
+    /**
+     * 每个容量等级全局缓存的最大字节数
+     */
+    static final int POOL_BYTES = 1024 * 1024 * 4;           //default 4M
+
+    /**
+     * 每个容量等级线程本地缓存的最大字节数
+     */
+    static final int CACHE_BYTES = 1024 * 256;               //default 256K
+
+    /**
+     * 堆内字节数组池
+     */
+    private final Arena<byte[]> heap = new Arena<byte[]>() {
+
+        @Override
+        byte[] create(int capacity) {
+            return new byte[capacity];
+        }
+
+        @Override
+        int capacity(byte[] array) {
+            return array.length;
+        }
+    };
+
+    /**
+     * 堆外字节缓冲区池
+     * 堆外内存的分配和回收代价远高于堆内数组，复用的收益更明显
+     */
+    private final Arena<ByteBuffer> direct = new Arena<ByteBuffer>() {
+
+        @Override
+        ByteBuffer create(int capacity) {
+            return ByteBuffer.allocateDirect(capacity);
+        }
+
+        @Override
+        int capacity(ByteBuffer buffer) {
+            return buffer.capacity();
+        }
+    };
+
+    /**
+     * 除默认分配器外仅供同包内创建相互隔离的池
+     */
+    BuffAllocator() {
+    }
+
+    /**
+     * 分配字节数组
+     * 数组长度为不小于期望容量的最小容量等级
+     * 期望容量超过最大容量等级时按期望容量分配
+     *
+     * @param capacity 期望容量
+     * @return 字节数组
+     */
+    public byte[] allocate(int capacity) {
+        return heap.allocate(capacity);
+    }
+
+    /**
+     * 分配堆外字节缓冲区
+     * 从通道读取时可以避免JDK经由临时堆外缓冲区拷贝
+     *
+     * @param capacity 期望容量
+     * @return 已清空的堆外字节缓冲区
+     */
+    public ByteBuffer allocateDirect(int capacity) {
+        return direct.allocate(capacity);
+    }
+
+    /**
+     * 归还字节数组
+     * 归还后调用者不应再访问该数组
+     *
+     * @param array 由{@link #allocate(int)}分配的字节数组
+     */
+    public void release(byte[] array) {
+        heap.release(array);
+    }
+
+    /**
+     * 归还字节缓冲区
+     * 堆内字节缓冲区归还其底层数组
+     * 归还后调用者不应再访问该缓冲区
+     *
+     * @param buffer 由分配器分配的字节缓冲区
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer.isDirect()) {
+            buffer.clear();
+            direct.release(buffer);
+        } else {
+            heap.release(buffer.array());
+        }
+    }
+
+    /**
+     * @return 容量对应的容量等级
+     * 返回{@code -1}表示超过最大容量等级
+     */
+    static int index(int capacity) {
+        if (capacity > 1 << MAX_SHIFT) {
+            return -1;
+        }
+        if (capacity <= 1 << MIN_SHIFT) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1) - MIN_SHIFT;
+    }
+
+    /**
+     * 同一类型缓冲区的池
+     *
+     * @param <T> 缓冲区类型
+     */
+    private static abstract class Arena<T> {
+
+        /**
+         * 各容量等级的全局缓存
+         */
+        private final Queue<T>[] pools;
+
+        /**
+         * 各容量等级全局缓存中的缓冲区数量
+         */
+        private final AtomicIntegerArray counts;
+
+        /**
+         * 线程本地缓存
+         */
+        private final ThreadLocal<Cache> caches = ThreadLocal.withInitial(Cache::new);
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Arena() {
+            int classes = MAX_SHIFT - MIN_SHIFT + 1;
+            pools = new Queue[classes];
+            for (int i = 0; i < classes; i++) {
+                pools[i] = new ConcurrentLinkedQueue<>();
+            }
+            counts = new AtomicIntegerArray(classes);
+        }
+
+        /**
+         * 创建指定容量的缓冲区
+         */
+        abstract T create(int capacity);
+
+        /**
+         * @return 缓冲区容量
+         */
+        abstract int capacity(T buffer);
+
+        @SuppressWarnings("unchecked")
+        T allocate(int capacity) {
+            if (capacity < 0) {
+                throw new IllegalArgumentException(
+                        String.format("capacity: %d (expected >= 0)", capacity));
+            }
+            int index = index(capacity);
+            if (index < 0) {
+                return create(capacity);
+            }
+            T buffer = (T) caches.get().poll(index);
+            if (buffer == null) {
+                buffer = pools[index].poll();
+                if (buffer != null) {
+                    counts.decrementAndGet(index);
+                } else {
+                    buffer = create(1 << (index + MIN_SHIFT));
+                }
+            }
+            return buffer;
+        }
+
+        void release(T buffer) {
+            int capacity = capacity(buffer);
+            int index = index(capacity);
+            //非容量等级的缓冲区不做缓存
+            if (index < 0 || capacity != 1 << (index + MIN_SHIFT)) {
+                return;
+            }
+            if (caches.get().offer(index, buffer)) {
+                return;
+            }
+            if (counts.incrementAndGet(index) <= POOL_BYTES >> (index + MIN_SHIFT)) {
+                pools[index].offer(buffer);
+            } else {
+                counts.decrementAndGet(index);
+            }
+        }
+    }
+
+    /**
+     * 线程本地缓存
+     * 仅允许所属线程访问
+     */
+    private static final class Cache {
+
+        /**
+         * 各容量等级缓存的缓冲区
+         */
+        private final Object[][] stacks = new Object[MAX_SHIFT - MIN_SHIFT + 1][];
+
+        /**
+         * 各容量等级缓存的缓冲区数量
+         */
+        private final int[] sizes = new int[MAX_SHIFT - MIN_SHIFT + 1];
+
+        Cache() {
+            for (int i = 0; i < stacks.length; i++) {
+                //容量等级较大的缓冲区至少缓存一个
+                stacks[i] = new Object[Math.max(1, CACHE_BYTES >> (i + MIN_SHIFT))];
+            }
+        }
+
+        Object poll(int index) {
+            int size = sizes[index];
+            if (size == 0) {
+                return null;
+            }
+            Object[] stack = stacks[index];
+            Object buffer = stack[--size];
+            stack[size] = null;
+            sizes[index] = size;
+            return buffer;
+        }
+
+        boolean offer(int index, Object buffer) {
+            int size = sizes[index];
+            Object[] stack = stacks[index];
+            if (size == stack.length) {
+                return false;
+            }
+            stack[size] = buffer;
+            sizes[index] = size + 1;
+            return true;
+        }
+    }
+}
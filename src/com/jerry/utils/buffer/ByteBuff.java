@@ -1,6 +1,10 @@
 package com.jerry.utils.buffer;
 
+import com.jerry.utils.ByteScanner;
+
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.util.Arrays;
 
 /**
@@ -10,6 +14,11 @@ import java.util.Arrays;
  */
 public final class ByteBuff extends AbstractBuff {
 
+    /**
+     * 单次从通道读取时保证的最小可写字节数
+     */
+    static final int READ_SIZE = 1024;                       //default 1K
+
     /**
      * 缓冲区底层数组
      */
@@ -28,6 +37,36 @@ public final class ByteBuff extends AbstractBuff {
         this(DEFAULT_MAX_CAPACITY, DEFAULT_CAPACITY);
     }
 
+    @Override
+    public int read(ReadableByteChannel channel) throws IOException {
+        return read(channel, READ_SIZE);
+    }
+
+    /**
+     * 可写字节数不足时先扩容
+     */
+    @Override
+    public int read(ReadableByteChannel channel, int size) throws IOException {
+        ensureWritable(size);
+        if (writableBytes() == 0) {
+            return 0;
+        }
+        int count = channel.read(ByteBuffer.wrap(buffer, position(),
+                Math.min(size, writableBytes())));
+        if (count > 0) {
+            position(position() + count);
+        }
+        return count;
+    }
+
+    /**
+     * 底层数组直接创建，无需归还，仅清空缓冲区
+     */
+    @Override
+    public void release() {
+        clear();
+    }
+
     @Override
     public int write(ByteBuffer byteBuffer) {
         return write(byteBuffer.array(), byteBuffer.arrayOffset()
@@ -41,6 +80,48 @@ public final class ByteBuff extends AbstractBuff {
         return bytes;
     }
 
+    @Override
+    public byte get(int index) {
+        if (index < 0 || index >= position()) {
+            throw new IndexOutOfBoundsException(String.format("index: " +
+                    "%d (expected >= 0 && < position)", index));
+        }
+        return buffer[index];
+    }
+
+    @Override
+    public int indexOf(int from, int to, byte value) {
+        if (from < 0 || to > position()) {
+            throw new IndexOutOfBoundsException(String.format("from: %d; " +
+                    "to: %d; Parameter value error.", from, to));
+        }
+        return ByteScanner.indexOf(ByteBuffer.wrap(buffer), from, to, value);
+    }
+
+    @Override
+    public byte[] array(int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > position()) {
+            throw new IndexOutOfBoundsException(String.format("offset: %d; " +
+                    "length: %d; Parameter value error.", offset, length));
+        }
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer, offset, bytes, 0, length);
+        return bytes;
+    }
+
+    @Override
+    public void discard(int length) {
+        if (length < 0 || length > position()) {
+            throw new IllegalArgumentException(String.format("length: " +
+                    "%d (expected >= 0 && <= position)", length));
+        }
+        int remaining = position() - length;
+        if (remaining > 0) {
+            System.arraycopy(buffer, length, buffer, 0, remaining);
+        }
+        position(remaining);
+    }
+
     /**
      * 从源字节流中读取字节并写入缓冲区
      */
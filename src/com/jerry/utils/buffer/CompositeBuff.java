@@ -0,0 +1,347 @@
+package com.jerry.utils.buffer;
+
+import com.jerry.utils.ByteScanner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分块缓冲区
+ * 由固定大小的块首尾相连组成，扩容时只追加新块，不拷贝已写字节
+ * 块从分配器借用，丢弃或释放后立即归还
+ * <p>
+ * 块大小为2的幂，按索引读取时通过位运算直接定位所在的块
+ * 使用堆外块时从通道读取无需经由JDK的临时堆外缓冲区拷贝，且可以原地扫描
+ * <p>
+ * 缓冲区为空时按期望读取的字节数重新选择块大小
+ * 小请求只借用小块，大请求使用大块并以分散读取一次填充多个块
+ */
+public final class CompositeBuff extends AbstractBuff {
+
+    /**
+     * 默认块大小的位数
+     */
+    static final int DEFAULT_CHUNK_SHIFT = 14;               //default 16K
+
+    /**
+     * 最小块大小的位数
+     */
+    static final int MIN_CHUNK_SHIFT = 8;                    //default 256B
+
+    /**
+     * 最大块大小的位数
+     */
+    static final int MAX_CHUNK_SHIFT = 16;                   //default 64K
+
+    /**
+     * 单次分散读取最多填充的块数
+     */
+    static final int MAX_SCATTER = 16;
+
+    /**
+     * 块分配器
+     */
+    private final BuffAllocator allocator;
+
+    /**
+     * 是否使用堆外块
+     */
+    private final boolean direct;
+
+    /**
+     * 已借用的块
+     */
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+
+    /**
+     * 第一个字节在首块中的偏移量
+     */
+    private int start = 0;
+
+    /**
+     * 块大小的位数
+     */
+    private int shift = DEFAULT_CHUNK_SHIFT;
+
+    /**
+     * 块大小
+     */
+    private int chunkSize = 1 << DEFAULT_CHUNK_SHIFT;
+
+    /**
+     * 块内偏移量掩码
+     */
+    private int mask = chunkSize - 1;
+
+    /**
+     * 分散读取使用的块数组
+     */
+    private final ByteBuffer[] scatter = new ByteBuffer[MAX_SCATTER];
+
+    /**
+     * @param maxCapacity 期望的缓冲区最大容量
+     * @param allocator   块分配器
+     * @param direct      是否使用堆外块
+     */
+    public CompositeBuff(int maxCapacity, BuffAllocator allocator, boolean direct) {
+        super(maxCapacity, 0);
+        this.allocator = allocator;
+        this.direct = direct;
+    }
+
+    /**
+     * @param allocator 块分配器
+     * @param direct    是否使用堆外块
+     */
+    public CompositeBuff(BuffAllocator allocator, boolean direct) {
+        this(DEFAULT_MAX_CAPACITY, allocator, direct);
+    }
+
+    /**
+     * @param allocator 块分配器
+     */
+    public CompositeBuff(BuffAllocator allocator) {
+        this(allocator, false);
+    }
+
+    @Override
+    public int write(ByteBuffer buffer) {
+        int total = 0;
+        while (buffer.hasRemaining() && ensureWritable()) {
+            ByteBuffer tail = tail();
+            int length = Math.min(buffer.remaining(), tail.remaining());
+            length = Math.min(length, writableBytes());
+            int limit = buffer.limit();
+            buffer.limit(buffer.position() + length);
+            tail.put(buffer);
+            buffer.limit(limit);
+            position(position() + length);
+            total += length;
+        }
+        return total;
+    }
+
+    @Override
+    public int read(ReadableByteChannel channel) throws IOException {
+        return read(channel, chunkSize);
+    }
+
+    @Override
+    public int read(ReadableByteChannel channel, int size) throws IOException {
+        int writable = maxCapacity() - position();
+        if (writable <= 0) {
+            return 0;
+        }
+        if (chunks.isEmpty()) {
+            chunkShift(size);
+        }
+        //收集可写的块，最后一个块可能超出最大容量
+        int want = Math.min(size, writable);
+        int count = 0;
+        int room = 0;
+        if (!chunks.isEmpty() && tail().hasRemaining()) {
+            scatter[count++] = tail();
+            room += tail().remaining();
+        }
+        while (room < want && count < MAX_SCATTER) {
+            ByteBuffer chunk = allocate();
+            chunks.add(chunk);
+            scatter[count++] = chunk;
+            room += chunkSize;
+        }
+        if (room > writable) {
+            ByteBuffer last = scatter[count - 1];
+            last.limit(last.limit() - (room - writable));
+        }
+        long readBytes;
+        try {
+            if (count == 1 || !(channel instanceof ScatteringByteChannel)) {
+                readBytes = channel.read(scatter[0]);
+            } else {
+                readBytes = ((ScatteringByteChannel) channel).read(scatter, 0, count);
+            }
+        } finally {
+            for (int i = 0; i < count; i++) {
+                scatter[i] = null;
+            }
+            trim();
+        }
+        if (readBytes > 0) {
+            position(position() + (int) readBytes);
+        }
+        return (int) readBytes;
+    }
+
+    @Override
+    public byte[] array() {
+        return array(0, position());
+    }
+
+    @Override
+    public byte get(int index) {
+        if (index < 0 || index >= position()) {
+            throw new IndexOutOfBoundsException(String.format("index: " +
+                    "%d (expected >= 0 && < position)", index));
+        }
+        int i = start + index;
+        return chunks.get(i >>> shift).get(i & mask);
+    }
+
+    @Override
+    public int indexOf(int from, int to, byte value) {
+        if (from < 0 || to > position()) {
+            throw new IndexOutOfBoundsException(String.format("from: %d; " +
+                    "to: %d; Parameter value error.", from, to));
+        }
+        int i = start + from;
+        int end = start + to;
+        //逐块扫描，块内每次比较8个字节
+        while (i < end) {
+            ByteBuffer chunk = chunks.get(i >>> shift);
+            int base = i & ~mask;
+            int limit = Math.min(end - base, chunkSize);
+            int j = ByteScanner.indexOf(chunk, i - base, limit, value);
+            if (j != -1) {
+                return base + j - start;
+            }
+            i = base + limit;
+        }
+        return -1;
+    }
+
+    @Override
+    public byte[] array(int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > position()) {
+            throw new IndexOutOfBoundsException(String.format("offset: %d; " +
+                    "length: %d; Parameter value error.", offset, length));
+        }
+        byte[] bytes = new byte[length];
+        int i = start + offset;
+        int copied = 0;
+        while (copied < length) {
+            ByteBuffer chunk = chunks.get(i >>> shift).duplicate();
+            int from = i & mask;
+            int len = Math.min(chunkSize - from, length - copied);
+            chunk.limit(from + len).position(from);
+            chunk.get(bytes, copied, len);
+            copied += len;
+            i += len;
+        }
+        return bytes;
+    }
+
+    @Override
+    public void discard(int length) {
+        if (length < 0 || length > position()) {
+            throw new IllegalArgumentException(String.format("length: " +
+                    "%d (expected >= 0 && <= position)", length));
+        }
+        int remaining = position() - length;
+        if (remaining == 0) {
+            release();
+            return;
+        }
+        //归还已完全丢弃的块
+        start += length;
+        int released = start >>> shift;
+        if (released > 0) {
+            List<ByteBuffer> head = chunks.subList(0, released);
+            for (ByteBuffer chunk : head) {
+                allocator.release(chunk);
+            }
+            head.clear();
+            start &= mask;
+        }
+        position(0);
+        updateCapacity();
+        position(remaining);
+    }
+
+    @Override
+    public void release() {
+        clear();
+        for (ByteBuffer chunk : chunks) {
+            allocator.release(chunk);
+        }
+        chunks.clear();
+        start = 0;
+        capacity(0);
+    }
+
+    /**
+     * 确保缓冲区有可写空间
+     * 最后一个块写满时追加新块
+     *
+     * @return 是否可写
+     * 返回{@code false}表示缓冲区已达到最大容量
+     */
+    private boolean ensureWritable() {
+        if (position() >= maxCapacity()) {
+            return false;
+        }
+        if (chunks.isEmpty() || !tail().hasRemaining()) {
+            chunks.add(allocate());
+            updateCapacity();
+        }
+        return true;
+    }
+
+    /**
+     * 从分配器借用一个块
+     */
+    private ByteBuffer allocate() {
+        return direct ? allocator.allocateDirect(chunkSize)
+                : ByteBuffer.wrap(allocator.allocate(chunkSize));
+    }
+
+    /**
+     * 按期望读取的字节数选择块大小
+     * 仅允许在缓冲区为空时调用
+     */
+    private void chunkShift(int size) {
+        int newShift = size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+        shift = Math.min(Math.max(newShift, MIN_CHUNK_SHIFT), MAX_CHUNK_SHIFT);
+        chunkSize = 1 << shift;
+        mask = chunkSize - 1;
+    }
+
+    /**
+     * 归还分散读取后仍为空的块
+     */
+    private void trim() {
+        while (!chunks.isEmpty() && tail().position() == 0) {
+            allocator.release(chunks.remove(chunks.size() - 1));
+        }
+        updateCapacity();
+    }
+
+    /**
+     * @return 最后一个块
+     * 块的写指针即为缓冲区在该块中的写入位置
+     */
+    private ByteBuffer tail() {
+        ByteBuffer tail = chunks.get(chunks.size() - 1);
+        tail.limit(chunkSize);
+        return tail;
+    }
+
+    /**
+     * 按已借用的块计算缓冲区容量
+     */
+    private void updateCapacity() {
+        long capacity = (long) chunks.size() * chunkSize - start;
+        capacity((int) Math.min(capacity, maxCapacity()));
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() +
+                "( capacity: " + capacity() + " , " +
+                "maxCapacity: " + maxCapacity() + " , " +
+                "chunks: " + chunks.size() + " )";
+    }
+}
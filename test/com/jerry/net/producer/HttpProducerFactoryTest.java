@@ -0,0 +1,139 @@
+package com.jerry.net.producer;
+
+import com.jerry.net.request.Request;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * HTTP协议请求生成器测试
+ * 通过本地回环连接向请求生成器写入字节流
+ */
+public class HttpProducerFactoryTest {
+
+    private static final String GET = "GET /next HTTP/1.1\r\nHost: a\r\n\r\n";
+
+    private ServerSocketChannel server;
+
+    private SocketChannel client;
+
+    private SocketChannel accepted;
+
+    private Producer producer;
+
+    @Before
+    public void setUp() throws IOException {
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client = SocketChannel.open(server.getLocalAddress());
+        accepted = server.accept();
+        accepted.configureBlocking(false);
+        producer = new HttpProducerFactory().create();
+        producer.reset(accepted);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        producer.clear();
+        client.close();
+        accepted.close();
+        server.close();
+    }
+
+    /**
+     * 发送字节流并生成全部可生成的请求
+     * 读取到数据后通道保持一段时间没有新数据即视为接收完毕
+     */
+    private List<Request> send(String text) throws IOException, InterruptedException {
+        client.write(ByteBuffer.wrap(text.getBytes(StandardCharsets.ISO_8859_1)));
+        List<Request> requests = new ArrayList<>();
+        boolean received = false;
+        int quiet = 0;
+        long deadline = System.currentTimeMillis() + 5000;
+        while (quiet < 20 && System.currentTimeMillis() < deadline) {
+            if (producer.readOnChannel() > 0) {
+                received = true;
+                quiet = 0;
+            } else if (received) {
+                quiet++;
+            }
+            Request request;
+            while ((request = producer.makeRequest()) != null) {
+                requests.add(request);
+            }
+            Thread.sleep(1);
+        }
+        return requests;
+    }
+
+    private void assertTerminal(String text) throws Exception {
+        List<Request> requests = send(text);
+        assertEquals(1, requests.size());
+        assertTrue(requests.get(0).failedParsing());
+        assertTrue(requests.get(0).closeAfterResponse());
+        //失败后继续到达的请求不再被生成
+        assertTrue(send(GET).isEmpty());
+        assertEquals(ReadState.IDLE, producer.readState());
+    }
+
+    @Test
+    public void pipelinedRequestsAreProduced() throws Exception {
+        List<Request> requests = send("POST /a HTTP/1.1\r\nContent-Length: 5\r\n\r\nhello" + GET);
+        assertEquals(2, requests.size());
+        for (Request request : requests) {
+            assertFalse(request.failedParsing());
+            assertFalse(request.closeAfterResponse());
+        }
+        assertEquals("/next", requests.get(1).url());
+    }
+
+    @Test
+    public void malformedContentLengthIsTerminal() throws Exception {
+        assertTerminal("POST /a HTTP/1.1\r\nContent-Length: 5x\r\n\r\nhello" + GET);
+    }
+
+    @Test
+    public void conflictingContentLengthIsTerminal() throws Exception {
+        assertTerminal("POST /a HTTP/1.1\r\nContent-Length: 5\r\nContent-Length: 30\r\n\r\nhello" + GET);
+    }
+
+    @Test
+    public void oversizedContentLengthIsTerminal() throws Exception {
+        assertTerminal("POST /a HTTP/1.1\r\nContent-Length: 999999999999\r\n\r\nhello" + GET);
+    }
+
+    @Test
+    public void chunkedTransferEncodingIsTerminal() throws Exception {
+        assertTerminal("POST /a HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n5\r\nhello\r\n0\r\n\r\n" + GET);
+    }
+
+    @Test
+    public void oversizedHeadIsTerminal() throws Exception {
+        char[] filler = new char[RequestFramer.MAX_HEAD_LENGTH];
+        Arrays.fill(filler, 'a');
+        assertTerminal("GET /a HTTP/1.1\r\nX: " + new String(filler) + "\r\n\r\n" + GET);
+    }
+
+    @Test
+    public void clearRestoresProducer() throws Exception {
+        assertEquals(1, send("POST /a HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n").size());
+        producer.clear();
+        producer.reset(accepted);
+        List<Request> requests = send(GET);
+        assertEquals(1, requests.size());
+        assertFalse(requests.get(0).failedParsing());
+    }
+}
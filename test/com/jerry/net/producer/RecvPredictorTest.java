@@ -0,0 +1,85 @@
+package com.jerry.net.producer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 接收字节数预测器测试
+ */
+public class RecvPredictorTest {
+
+    @Test
+    public void fullReadsGrowQuickly() {
+        RecvPredictor predictor = new RecvPredictor(64, 1024, 1024 * 64);
+        assertEquals(1024, predictor.next());
+        predictor.record(1024);
+        assertEquals(4096, predictor.next());
+        predictor.record(4096);
+        assertEquals(16384, predictor.next());
+        predictor.record(16384);
+        assertEquals(65536, predictor.next());
+        predictor.record(65536);
+        assertEquals(65536, predictor.next());
+    }
+
+    @Test
+    public void smallReadsShrinkSlowly() {
+        RecvPredictor predictor = new RecvPredictor(64, 1024, 1024 * 64);
+        //一次读不满不减小
+        predictor.record(10);
+        assertEquals(1024, predictor.next());
+        //连续两次读不满才减小一步
+        predictor.record(10);
+        assertEquals(512, predictor.next());
+        //中间一次读取量接近预测值时重新计数
+        predictor.record(10);
+        predictor.record(400);
+        predictor.record(10);
+        assertEquals(512, predictor.next());
+        predictor.record(10);
+        assertEquals(256, predictor.next());
+        for (int i = 0; i < 20; i++) {
+            predictor.record(0);
+        }
+        assertEquals(64, predictor.next());
+    }
+
+    @Test
+    public void predictionStaysWithinUnalignedBounds() {
+        RecvPredictor predictor = new RecvPredictor(100, 1024, 1000);
+        assertBounded(predictor, 100, 1000);
+        RecvPredictor narrow = new RecvPredictor(100, 1024, 120);
+        assertBounded(narrow, 100, 120);
+        RecvPredictor small = new RecvPredictor(100, 1, 1000);
+        assertTrue(small.next() >= 100);
+    }
+
+    @Test
+    public void largeMaximumDoesNotOverflow() {
+        RecvPredictor predictor = new RecvPredictor(64, 1024, Integer.MAX_VALUE);
+        for (int i = 0; i < 20; i++) {
+            predictor.record(predictor.next());
+        }
+        assertEquals(1 << 30, predictor.next());
+        assertBounded(predictor, 64, Integer.MAX_VALUE);
+        RecvPredictor huge = new RecvPredictor(Integer.MAX_VALUE, 1024, Integer.MAX_VALUE);
+        assertEquals(Integer.MAX_VALUE, huge.next());
+    }
+
+    /**
+     * 反复读满和读空，预测值始终在范围内
+     */
+    private static void assertBounded(RecvPredictor predictor, int min, int max) {
+        for (int i = 0; i < 40; i++) {
+            int next = predictor.next();
+            assertTrue("next " + next, next >= min && next <= max);
+            predictor.record(next);
+        }
+        for (int i = 0; i < 80; i++) {
+            int next = predictor.next();
+            assertTrue("next " + next, next >= min && next <= max);
+            predictor.record(0);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.jerry.net.producer;
+
+import com.jerry.utils.buffer.AbstractBuff;
+import com.jerry.utils.buffer.BuffAllocator;
+import com.jerry.utils.buffer.CompositeBuff;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * 请求分帧器测试
+ */
+public class RequestFramerTest {
+
+    private static final String GET = "GET / HTTP/1.1\r\nHost: a\r\n\r\n";
+
+    private AbstractBuff buff;
+
+    private RequestFramer framer;
+
+    @Before
+    public void setUp() {
+        buff = new CompositeBuff(BuffAllocator.DEFAULT, false);
+        framer = new RequestFramer(buff.maxCapacity());
+    }
+
+    private void append(String text) {
+        buff.write(ByteBuffer.wrap(text.getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    @Test
+    public void headSplitAcrossReads() {
+        String request = "GET /index HTTP/1.1\r\nHost: a\r\nAccept: */*\r\n\r\n";
+        for (int i = 0; i < request.length() - 1; i++) {
+            append(request.substring(i, i + 1));
+            assertEquals("split at " + i, 0, framer.frame(buff));
+            assertFalse(framer.inBody());
+        }
+        append(request.substring(request.length() - 1));
+        assertEquals(request.length(), framer.frame(buff));
+        assertEquals(request.length(), framer.headLength());
+    }
+
+    @Test
+    public void headTerminatorSplitBetweenReads() {
+        append("GET / HTTP/1.1\r\nHost: a\r\n\r");
+        assertEquals(0, framer.frame(buff));
+        append("\n");
+        assertEquals(GET.length(), framer.frame(buff));
+    }
+
+    @Test
+    public void contentLengthWithPartialBody() {
+        String head = "POST /echo HTTP/1.1\r\nContent-Length: 10\r\n\r\n";
+        append(head + "01234");
+        assertEquals(0, framer.frame(buff));
+        assertTrue(framer.inBody());
+        append("5678");
+        assertEquals(0, framer.frame(buff));
+        append("9");
+        assertEquals(head.length() + 10, framer.frame(buff));
+        assertEquals(head.length(), framer.headLength());
+    }
+
+    @Test
+    public void pipelinedRequestsInOneBuffer() {
+        String post = "POST /echo HTTP/1.1\r\nContent-Length: 3\r\n\r\nabc";
+        append(GET + post + GET + "GET /partial");
+        int[] expected = {GET.length(), post.length(), GET.length()};
+        int offset = 0;
+        for (int length : expected) {
+            assertEquals(offset, framer.offset());
+            assertEquals(length, framer.frame(buff));
+            framer.next(length);
+            offset += length;
+        }
+        assertEquals(0, framer.frame(buff));
+        framer.compact(buff);
+        assertEquals(0, framer.offset());
+        assertEquals("GET /partial".length(), buff.readableBytes());
+        append(" HTTP/1.1\r\n\r\n");
+        assertEquals(buff.readableBytes(), framer.frame(buff));
+    }
+
+    @Test
+    public void blankLinesBeforeRequestLineAreSkipped() {
+        append("\r\n\r\n" + GET);
+        assertEquals(GET.length(), framer.frame(buff));
+        assertEquals(4, framer.offset());
+    }
+
+    @Test
+    public void headerNamesAreCaseInsensitive() {
+        String head = "POST / HTTP/1.1\r\ncOnTeNt-LeNgTh: 2\r\n\r\n";
+        append(head + "ok");
+        assertEquals(head.length() + 2, framer.frame(buff));
+
+        setUp();
+        append("POST / HTTP/1.1\r\nTRANSFER-ENCODING: chunked\r\n\r\n");
+        assertEquals(-1, framer.frame(buff));
+    }
+
+    @Test
+    public void transferEncodingIsRejected() {
+        append("POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n0\r\n\r\n");
+        assertEquals(-1, framer.frame(buff));
+        assertEquals(-1, framer.frame(buff));
+    }
+
+    @Test
+    public void identicalDuplicateLengthsAreAccepted() {
+        String head = "POST / HTTP/1.1\r\nContent-Length: 2\r\nContent-Length: 2\r\n\r\n";
+        append(head + "ok");
+        assertEquals(head.length() + 2, framer.frame(buff));
+    }
+
+    @Test
+    public void conflictingLengthsAreRejected() {
+        append("POST / HTTP/1.1\r\nContent-Length: 2\r\nContent-Length: 20\r\n\r\nok");
+        assertEquals(-1, framer.frame(buff));
+    }
+
+    @Test
+    public void malformedLengthsAreRejected() {
+        String[] values = {"", "x", "1x", "-1", "+1", "1 2", "1,1", "1234567890123456789"};
+        for (String value : values) {
+            setUp();
+            append("POST / HTTP/1.1\r\nContent-Length: " + value + "\r\n\r\n");
+            assertEquals("Content-Length: " + value, -1, framer.frame(buff));
+        }
+    }
+
+    @Test
+    public void lengthWithSurroundingWhitespaceIsAccepted() {
+        String head = "POST / HTTP/1.1\r\nContent-Length: \t2 \r\n\r\n";
+        append(head + "ok");
+        assertEquals(head.length() + 2, framer.frame(buff));
+    }
+
+    @Test
+    public void bodyOverMaxLengthIsRejected() {
+        framer = new RequestFramer(64);
+        append("POST / HTTP/1.1\r\nContent-Length: 64\r\n\r\n");
+        assertEquals(-1, framer.frame(buff));
+    }
+
+    @Test
+    public void headOverMaxLengthIsRejected() {
+        append("GET / HTTP/1.1\r\nX: ");
+        char[] filler = new char[1024];
+        Arrays.fill(filler, 'a');
+        String chunk = new String(filler);
+        int result = 0;
+        while (buff.readableBytes() < RequestFramer.MAX_HEAD_LENGTH && result == 0) {
+            append(chunk);
+            result = framer.frame(buff);
+        }
+        assertEquals(-1, result);
+        append("\r\n\r\n");
+        assertEquals(-1, framer.frame(buff));
+    }
+
+    @Test
+    public void headJustUnderMaxLengthIsAccepted() {
+        String prefix = "GET / HTTP/1.1\r\nX: ";
+        String suffix = "\r\n\r\n";
+        char[] filler = new char[RequestFramer.MAX_HEAD_LENGTH - prefix.length() - suffix.length()];
+        Arrays.fill(filler, 'a');
+        append(prefix + new String(filler) + suffix);
+        assertEquals(RequestFramer.MAX_HEAD_LENGTH, framer.frame(buff));
+    }
+
+    @Test
+    public void resetClearsFailedState() {
+        append("POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n");
+        assertEquals(-1, framer.frame(buff));
+        buff.release();
+        framer.reset();
+        append(GET);
+        assertEquals(GET.length(), framer.frame(buff));
+    }
+}
@@ -0,0 +1,126 @@
+package com.jerry.net.request;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 常用请求头字段名匹配测试
+ */
+public class HttpHeaderTest {
+
+    private static HttpHeader match(String name) {
+        //字段名前后加上其余字节，验证只匹配指定范围
+        byte[] bytes = ("xx" + name + ": v").getBytes(StandardCharsets.ISO_8859_1);
+        return HttpHeader.match(bytes, 2, 2 + name.length());
+    }
+
+    /**
+     * 大小写交替的字段名
+     */
+    private static String alternate(String name, int upper) {
+        StringBuilder builder = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            builder.append(i % 2 == upper ? Character.toUpperCase(c) : Character.toLowerCase(c));
+        }
+        return builder.toString();
+    }
+
+    private static boolean isKnown(String name) {
+        for (HttpHeader header : HttpHeader.values()) {
+            if (header.headerName().equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void everyHeaderMatchesInAnyCase() {
+        for (HttpHeader header : HttpHeader.values()) {
+            String name = header.headerName();
+            String[] variants = {name, name.toLowerCase(), name.toUpperCase(),
+                    alternate(name, 0), alternate(name, 1)};
+            for (String variant : variants) {
+                assertSame(variant, header, match(variant));
+                assertSame(variant, header, HttpHeader.of(variant));
+            }
+        }
+    }
+
+    @Test
+    public void nearMissesOfSameLengthDoNotMatch() {
+        for (HttpHeader header : HttpHeader.values()) {
+            String name = header.headerName();
+            //逐个位置替换为相邻字母，长度不变
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (!Character.isLetter(c)) {
+                    continue;
+                }
+                char other = c == 'z' || c == 'Z' ? (char) (c - 1) : (char) (c + 1);
+                String miss = name.substring(0, i) + other + name.substring(i + 1);
+                if (isKnown(miss)) {
+                    continue;
+                }
+                assertNull(miss, match(miss));
+                assertNull(miss, HttpHeader.of(miss));
+            }
+        }
+        assertNull(match("Hosu"));
+        assertNull(match("Cookif"));
+        assertNull(match("Content-Typf"));
+        assertNull(match("If-Matcg"));
+    }
+
+    @Test
+    public void nonLettersAreNotFolded() {
+        //与字母一样只差0x20的非字母字节不能按大小写匹配
+        assertNull(match("Content\rType"));
+        assertNull(match("Content\rtype"));
+        assertNull(match("X\rForwarded-For"));
+        assertNull(match("Ho[t"));
+        assertNull(match("Ho{t"));
+    }
+
+    @Test
+    public void otherLengthsDoNotMatch() {
+        assertNull(match(""));
+        assertNull(match("Hos"));
+        assertNull(match("Hosts"));
+        assertNull(match("X-Requested-With-Extra-Long-Name"));
+        assertNull(HttpHeader.of(""));
+        assertNull(HttpHeader.of("Hosts"));
+        assertNull(HttpHeader.of("X-Requested-With-Extra-Long-Name"));
+    }
+
+    @Test
+    public void unknownHeadersFallThroughToHeadersMap() {
+        for (boolean lazy : new boolean[]{false, true}) {
+            HttpRequest request = new HttpRequest(("GET / HTTP/1.1\r\nhost: a\r\nHosu: b\r\n"
+                    + "Cookies: c\r\nX-Custom: d\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            request.setCharset(StandardCharsets.UTF_8);
+            request.parse(lazy);
+            assertFalse(request.failedParsing());
+            Map<String, List<String>> headers = request.headersMap();
+            assertEquals(4, headers.size());
+            //常用字段使用规范的字段名，其余字段保留原样
+            assertEquals(Collections.singletonList("a"), headers.get("Host"));
+            assertTrue(new ArrayList<>(headers.keySet()).containsAll(
+                    Arrays.asList("Host", "Hosu", "Cookies", "X-Custom")));
+            assertEquals("a", request.host());
+            assertEquals("b", request.header("hosu"));
+            assertEquals("c", request.header("COOKIES"));
+            assertEquals("d", request.header("x-custom"));
+            assertNull(request.header(HttpHeader.COOKIE));
+        }
+    }
+}
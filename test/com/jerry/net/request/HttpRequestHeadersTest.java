@@ -0,0 +1,192 @@
+package com.jerry.net.request;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * HTTP协议请求的请求头解析测试
+ * 同一字节流分别以完整解析和延迟解析请求头两种模式解析
+ */
+public class HttpRequestHeadersTest {
+
+    private static HttpRequest parse(String text, boolean lazyHeaders) {
+        HttpRequest request = new HttpRequest(text.getBytes(StandardCharsets.ISO_8859_1));
+        request.setCharset(StandardCharsets.UTF_8);
+        request.parse(lazyHeaders);
+        return request;
+    }
+
+    /**
+     * 两种模式的解析状态和请求头必须一致
+     *
+     * @return 完整解析模式下的请求
+     */
+    private static HttpRequest parseBoth(String text) {
+        HttpRequest eager = parse(text, false);
+        HttpRequest lazy = parse(text, true);
+        assertEquals(text, eager.failedParsing(), lazy.failedParsing());
+        if (!eager.failedParsing()) {
+            assertEquals(text, eager.headersMap(), lazy.headersMap());
+        }
+        return eager;
+    }
+
+    @Test
+    public void emptyValueIsAcceptedInBothModes() {
+        String[] texts = {
+                "GET / HTTP/1.1\r\nHost:\r\n\r\n",
+                "GET / HTTP/1.1\r\nHost:   \r\n\r\n",
+                "GET / HTTP/1.1\nHost:\n\n",
+                "GET / HTTP/1.1\r\nX-Empty:\r\nHost: a\r\n\r\n",
+        };
+        for (String text : texts) {
+            HttpRequest request = parseBoth(text);
+            assertFalse(text, request.failedParsing());
+        }
+        HttpRequest request = parse("GET / HTTP/1.1\r\nX-Empty:\r\nHost: a\r\n\r\n", true);
+        assertEquals("", request.header("X-Empty"));
+        assertEquals("a", request.header(HttpHeader.HOST));
+        assertEquals(Collections.singletonList(""), parse("GET / HTTP/1.1\r\nHost:\r\n\r\n", false)
+                .headers(HttpHeader.HOST));
+    }
+
+    @Test
+    public void malformedLinesFailInBothModes() {
+        String[] texts = {
+                "GET / HTTP/1.1\r\nHost a\r\n\r\n",
+                "GET / HTTP/1.1\r\nHost: a\r\nbroken\r\n\r\n",
+                "GET / HTTP/1.1\r\n   \r\n\r\n",
+                "GET / HTTP/1.1\r\nHo\rst: a\r\n\r\n",
+                "GET / HTTP/1.1\r\nHost: a\r\n",
+                "GET / HTTP/1.1\r\nHost: a",
+                "GET / HTTP/1.1\r\nHost:",
+                "GET / HTTP/1.1",
+                "GET /",
+                "",
+        };
+        for (String text : texts) {
+            HttpRequest request = parseBoth(text);
+            assertTrue(text, request.failedParsing());
+        }
+    }
+
+    @Test
+    public void validRequestsAgreeInBothModes() {
+        String[] texts = {
+                "GET / HTTP/1.1\r\n\r\n",
+                "GET / HTTP/1.1\r\nHost: a\r\nAccept: */*\r\n\r\n",
+                "GET / HTTP/1.1\nHost: a\nAccept: text/html; q=0.9\n\n",
+                "GET / HTTP/1.1\r\n  Host :a\r\nX-A:1\r\nx-a: 2\r\n\r\n",
+                "\r\n\r\nGET / HTTP/1.1\r\nCookie: a=1; b=2\r\n\r\n",
+                "POST /p HTTP/1.1\r\nContent-Length: 2\r\n\r\nok",
+        };
+        for (String text : texts) {
+            assertFalse(text, parseBoth(text).failedParsing());
+        }
+    }
+
+    @Test
+    public void requestLineParts() {
+        for (boolean lazy : new boolean[]{false, true}) {
+            HttpRequest request = parse("POST /path/to?x=1 HTTP/1.1\r\nHost: a\r\n"
+                    + "Content-Length: 4\r\n\r\nbody", lazy);
+            assertFalse(request.failedParsing());
+            assertEquals("POST", request.method());
+            assertEquals("/path/to", request.url());
+            assertEquals("x=1", request.args());
+            assertEquals("HTTP/1.1", request.protocol());
+            assertArrayEquals("body".getBytes(StandardCharsets.ISO_8859_1), request.body());
+        }
+    }
+
+    @Test
+    public void knownAndUnknownHeaders() {
+        for (boolean lazy : new boolean[]{false, true}) {
+            HttpRequest request = parse("GET / HTTP/1.1\r\nHost: example.com\r\n"
+                    + "User-Agent: curl/8.0\r\nX-Trace-Id: abc123\r\n\r\n", lazy);
+            assertEquals("example.com", request.host());
+            assertEquals("example.com", request.header(HttpHeader.HOST));
+            assertEquals(Collections.singletonList("curl/8.0"), request.userAgent());
+            assertEquals("abc123", request.header("X-Trace-Id"));
+            assertNull(request.header(HttpHeader.COOKIE));
+            assertNull(request.header("X-Missing"));
+            Map<String, List<String>> headers = request.headersMap();
+            assertEquals(3, headers.size());
+            //常用字段使用规范的字段名，其余字段保留原样
+            assertTrue(headers.keySet().containsAll(Arrays.asList("Host", "User-Agent", "X-Trace-Id")));
+        }
+    }
+
+    @Test
+    public void lookupsIgnoreCase() {
+        for (boolean lazy : new boolean[]{false, true}) {
+            HttpRequest request = parse("GET / HTTP/1.1\r\nhOST: a\r\n"
+                    + "x-custom-header: v\r\nCONTENT-TYPE: text/plain\r\n\r\n", lazy);
+            assertEquals("a", request.header("host"));
+            assertEquals("a", request.header("HOST"));
+            assertEquals("a", request.header(HttpHeader.HOST));
+            assertEquals("v", request.header("X-Custom-Header"));
+            assertEquals("v", request.header("X-CUSTOM-HEADER"));
+            assertEquals("text/plain", request.contentType());
+            assertEquals(Collections.singletonList("a"), request.headersMap().get("HoSt"));
+            assertEquals(Collections.singletonList("v"), request.headersMap().get("x-CUSTOM-header"));
+        }
+    }
+
+    @Test
+    public void duplicateHeadersKeepLastValue() {
+        for (boolean lazy : new boolean[]{false, true}) {
+            HttpRequest request = parse("GET / HTTP/1.1\r\nHost: first\r\nX-A: 1\r\n"
+                    + "host: second\r\nx-a: 2\r\n\r\n", lazy);
+            assertEquals("second", request.host());
+            assertEquals("2", request.header("X-A"));
+            assertEquals(2, request.headersMap().size());
+        }
+    }
+
+    @Test
+    public void semicolonSeparatedValues() {
+        for (boolean lazy : new boolean[]{false, true}) {
+            HttpRequest request = parse("GET / HTTP/1.1\r\nCookie: a=1; b=2;c=3;  \r\n"
+                    + "Content-Type: text/html; charset=utf-8\r\nX-List: x;y\r\n\r\n", lazy);
+            assertEquals(Arrays.asList("a=1", "b=2", "c=3"), request.headers(HttpHeader.COOKIE));
+            assertEquals(Arrays.asList("text/html", "charset=utf-8"), request.headers("content-type"));
+            assertEquals(Arrays.asList("x", "y"), request.headers("X-List"));
+            //多个字段值时单值访问返回null
+            assertNull(request.contentType());
+        }
+    }
+
+    @Test
+    public void lfOnlyLineEndings() {
+        for (boolean lazy : new boolean[]{false, true}) {
+            HttpRequest request = parse("POST /p HTTP/1.1\nHost: a\nX-B:  b \n\nok", lazy);
+            assertFalse(request.failedParsing());
+            assertEquals("HTTP/1.1", request.protocol());
+            assertEquals("a", request.host());
+            assertEquals("b ", request.header("X-B"));
+            assertArrayEquals("ok".getBytes(StandardCharsets.ISO_8859_1), request.body());
+        }
+    }
+
+    @Test
+    public void failedRequestRejectsAccess() {
+        for (boolean lazy : new boolean[]{false, true}) {
+            HttpRequest request = parse("GET / HTTP/1.1\r\nno colon here\r\n\r\n", lazy);
+            assertTrue(request.failedParsing());
+            try {
+                request.headersMap();
+                fail();
+            } catch (IllegalOperationException expected) {
+                //解析失败的请求不允许访问
+            }
+        }
+    }
+}
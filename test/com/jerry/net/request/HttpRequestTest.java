@@ -0,0 +1,55 @@
+package com.jerry.net.request;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * HTTP协议请求的请求参数访问测试
+ */
+public class HttpRequestTest {
+
+    private static HttpRequest request(String target) {
+        String text = "GET " + target + " HTTP/1.1\r\nHost: a\r\n\r\n";
+        HttpRequest request = new HttpRequest(text.getBytes(StandardCharsets.UTF_8));
+        request.setCharset(StandardCharsets.UTF_8);
+        request.parse();
+        assertFalse(request.failedParsing());
+        return request;
+    }
+
+    @Test
+    public void argsMapKeepsLastValueOfRepeatedName() {
+        Map<String, String> args = request("/a?x=1&y=2&x=3").argsMap();
+        assertEquals("3", args.get("x"));
+        assertEquals("2", args.get("y"));
+        assertEquals(2, args.size());
+    }
+
+    @Test
+    public void parameterKeepsFirstValueAndParametersKeepAll() {
+        HttpRequest request = request("/a?x=1&y=2&x=3");
+        assertEquals("1", request.parameter("x"));
+        assertEquals(Arrays.asList("1", "3"), request.parameters("x"));
+        assertNull(request.parameter("missing"));
+    }
+
+    @Test
+    public void argsMapIsDecoded() {
+        Map<String, String> args = request("/a?q=a+b%20c&name=%E4%B8%AD&flag").argsMap();
+        assertEquals("a b c", args.get("q"));
+        assertEquals("中", args.get("name"));
+        assertEquals("", args.get("flag"));
+    }
+
+    @Test
+    public void argsAreEmptyWithoutQuery() {
+        HttpRequest request = request("/a");
+        assertTrue(request.argsMap().isEmpty());
+        assertTrue(request.parameters().isEmpty());
+    }
+}
@@ -0,0 +1,136 @@
+package com.jerry.net.request;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 请求参数解码器测试
+ */
+public class QueryStringTest {
+
+    private static QueryString query(String text) {
+        return query(text, StandardCharsets.UTF_8);
+    }
+
+    private static QueryString query(String text, Charset charset) {
+        //参数前后加上请求行的其余部分，验证只扫描指定范围
+        byte[] bytes = ("GET /a?" + text + " HTTP/1.1").getBytes(StandardCharsets.ISO_8859_1);
+        int start = "GET /a?".length();
+        return new QueryString(bytes, start, start + text.length(), charset);
+    }
+
+    private static String value(String text, String name) {
+        List<String> values = query(text).map().get(name);
+        return values == null ? null : values.get(0);
+    }
+
+    private static String raw(QueryString query, String name) {
+        ByteBuffer buffer = query.raw(name);
+        if (buffer == null) {
+            return null;
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    @Test
+    public void plainPairs() {
+        Map<String, List<String>> map = query("a=1&b=two&c=").map();
+        assertEquals(Arrays.asList("a", "b", "c"), Arrays.asList(map.keySet().toArray()));
+        assertEquals(Collections.singletonList("1"), map.get("a"));
+        assertEquals(Collections.singletonList("two"), map.get("b"));
+        assertEquals(Collections.singletonList(""), map.get("c"));
+    }
+
+    @Test
+    public void percentEscapesAreDecoded() {
+        assertEquals("a b", value("q=a%20b", "q"));
+        assertEquals("a+b", value("q=a%2Bb", "q"));
+        assertEquals("&=%", value("q=%26%3D%25", "q"));
+        assertEquals("/path", value("q=%2fpath", "q"));
+        assertEquals("v", value("%71=v", "q"));
+        assertEquals("1", value("a%5B%5D=1", "a[]"));
+    }
+
+    @Test
+    public void plusIsSpace() {
+        assertEquals("a b c", value("q=a+b+c", "q"));
+        assertEquals(" ", value("q=+", "q"));
+        assertEquals("v", value("a+b=v", "a b"));
+    }
+
+    @Test
+    public void malformedEscapesAreKept() {
+        assertEquals("%G1", value("q=%G1", "q"));
+        assertEquals("%1G", value("q=%1G", "q"));
+        assertEquals("a%", value("q=a%", "q"));
+        assertEquals("a%4", value("q=a%4", "q"));
+        assertEquals("%", value("q=%", "q"));
+        assertEquals("%A", value("q=%%41", "q"));
+        assertEquals("x y%", value("q=x+y%", "q"));
+    }
+
+    @Test
+    public void emptyKeysAndValues() {
+        Map<String, List<String>> map = query("&=x&&flag&k=&=&").map();
+        assertEquals(2, map.size());
+        assertEquals(Collections.singletonList(""), map.get("flag"));
+        assertEquals(Collections.singletonList(""), map.get("k"));
+        assertFalse(map.containsKey(""));
+        assertTrue(query("").map().isEmpty());
+        assertTrue(query("&&&").map().isEmpty());
+    }
+
+    @Test
+    public void onlyFirstEqualsSeparatesValue() {
+        assertEquals("b=c", value("a=b=c", "a"));
+        assertEquals("=", value("a==", "a"));
+    }
+
+    @Test
+    public void repeatedNamesKeepEveryValueInOrder() {
+        Map<String, List<String>> map = query("a=1&b=x&a=2&a=%33").map();
+        assertEquals(Arrays.asList("1", "2", "3"), map.get("a"));
+        assertEquals(Collections.singletonList("x"), map.get("b"));
+    }
+
+    @Test
+    public void multibyteUtf8() {
+        assertEquals("中文", value("q=%E4%B8%AD%E6%96%87", "q"));
+        assertEquals("中文", value("q=%e4%b8%ad%e6%96%87", "q"));
+        assertEquals("值", value("%E9%94%AE=%E5%80%BC", "键"));
+        assertEquals("a 中", value("q=a+%E4%B8%AD", "q"));
+        //不完整的多字节序列按字符集替换
+        assertEquals("\uFFFD", value("q=%E4%B8", "q"));
+    }
+
+    @Test
+    public void rawUnescapedBytesUseCharset() {
+        byte[] bytes = "q=中".getBytes(StandardCharsets.UTF_8);
+        QueryString query = new QueryString(bytes, 0, bytes.length, StandardCharsets.UTF_8);
+        assertEquals(Collections.singletonList("中"), query.map().get("q"));
+        QueryString latin = query("q=%E9", StandardCharsets.ISO_8859_1);
+        assertEquals(Collections.singletonList("é"), latin.map().get("q"));
+    }
+
+    @Test
+    public void rawReturnsUndecodedValue() {
+        QueryString query = query("a=x%20y&b=1+2&a=second&c");
+        assertEquals("x%20y", raw(query, "a"));
+        assertEquals("1+2", raw(query, "b"));
+        assertEquals("", raw(query, "c"));
+        assertNull(raw(query, "missing"));
+        assertTrue(query.raw("a").isReadOnly());
+        assertEquals("1", raw(query("k%2F=1"), "k/"));
+    }
+}
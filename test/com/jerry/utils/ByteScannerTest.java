@@ -0,0 +1,178 @@
+package com.jerry.utils;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 字节查找工具测试
+ * 所有结果与逐字节查找的结果比较，覆盖两种字节序以及堆内和堆外缓冲区
+ */
+public class ByteScannerTest {
+
+    private static final byte LF = '\n';
+
+    private static final byte COLON = ':';
+
+    /**
+     * 以不同的字节序和内存类型包装相同的内容
+     */
+    private static ByteBuffer[] wrap(byte[] bytes) {
+        ByteBuffer big = ByteBuffer.wrap(bytes);
+        ByteBuffer little = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).clear();
+        ByteBuffer directLittle = direct.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        return new ByteBuffer[]{big, little, direct, directLittle};
+    }
+
+    private static int naiveIndexOf(byte[] bytes, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int naiveIndexOfAny(byte[] bytes, int from, int to, byte a, byte b) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == a || bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 对所有起止位置组合比较查找结果
+     */
+    private static void assertAllRanges(byte[] bytes) {
+        for (ByteBuffer buffer : wrap(bytes)) {
+            for (int from = 0; from <= bytes.length; from++) {
+                for (int to = from; to <= bytes.length; to++) {
+                    String range = buffer.order() + (buffer.isDirect() ? " direct " : " heap ")
+                            + from + ".." + to;
+                    assertEquals(range, naiveIndexOf(bytes, from, to, LF),
+                            ByteScanner.indexOf(buffer, from, to, LF));
+                    assertEquals(range, naiveIndexOfAny(bytes, from, to, COLON, LF),
+                            ByteScanner.indexOfAny(buffer, from, to, COLON, LF));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void delimiterAtEveryPosition() {
+        for (int length = 1; length <= 16; length++) {
+            for (int pos = 0; pos < length; pos++) {
+                byte[] bytes = new byte[length];
+                for (int i = 0; i < length; i++) {
+                    bytes[i] = (byte) ('a' + i);
+                }
+                bytes[pos] = LF;
+                assertAllRanges(bytes);
+            }
+        }
+    }
+
+    @Test
+    public void firstOfSeveralMatchesInOneWord() {
+        for (int first = 0; first < 16; first++) {
+            byte[] bytes = new byte[16];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = i >= first && (i - first) % 3 == 0 ? LF : (byte) 'x';
+            }
+            assertAllRanges(bytes);
+        }
+    }
+
+    @Test
+    public void lengthsNotMultipleOfEight() {
+        Random random = new Random(24);
+        for (int length = 0; length <= 40; length++) {
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = (byte) ('a' + random.nextInt(26));
+            }
+            if (length > 0) {
+                bytes[length - 1] = LF;
+            }
+            assertAllRanges(bytes);
+        }
+    }
+
+    @Test
+    public void highBytesNextToDelimiter() {
+        byte[] highs = {(byte) 0x80, (byte) 0x8A, (byte) 0xBA, (byte) 0xFF, (byte) 0x7F, 0x0B, 0x09};
+        for (byte high : highs) {
+            for (int pos = 0; pos < 16; pos++) {
+                byte[] bytes = new byte[16];
+                for (int i = 0; i < bytes.length; i++) {
+                    bytes[i] = high;
+                }
+                bytes[pos] = LF;
+                assertAllRanges(bytes);
+            }
+        }
+    }
+
+    @Test
+    public void searchForHighByte() {
+        byte target = (byte) 0x8A;
+        for (int pos = 0; pos < 16; pos++) {
+            byte[] bytes = new byte[16];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) (i % 2 == 0 ? 0x0A : 0x8B);
+            }
+            bytes[pos] = target;
+            for (ByteBuffer buffer : wrap(bytes)) {
+                assertEquals(pos, ByteScanner.indexOf(buffer, 0, bytes.length, target));
+                assertEquals(naiveIndexOfAny(bytes, 0, bytes.length, target, (byte) 0x8B),
+                        ByteScanner.indexOfAny(buffer, 0, bytes.length, target, (byte) 0x8B));
+            }
+        }
+    }
+
+    @Test
+    public void noMatch() {
+        for (int length = 0; length <= 24; length++) {
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                //与换行符只差一位或只差最高位的字节
+                bytes[i] = (byte) (i % 3 == 0 ? 0x8A : i % 3 == 1 ? 0x0B : 0x08);
+            }
+            for (ByteBuffer buffer : wrap(bytes)) {
+                assertEquals(-1, ByteScanner.indexOf(buffer, 0, length, LF));
+                assertEquals(-1, ByteScanner.indexOfAny(buffer, 0, length, COLON, LF));
+            }
+        }
+    }
+
+    @Test
+    public void matchOutsideRangeIsIgnored() {
+        byte[] bytes = "\nabcdefghijklmno\n".getBytes();
+        for (ByteBuffer buffer : wrap(bytes)) {
+            assertEquals(-1, ByteScanner.indexOf(buffer, 1, bytes.length - 1, LF));
+            assertEquals(bytes.length - 1, ByteScanner.indexOf(buffer, 1, bytes.length, LF));
+        }
+    }
+
+    @Test
+    public void randomContent() {
+        Random random = new Random(8);
+        byte[] alphabet = {'a', ':', '\r', '\n', (byte) 0x80, (byte) 0x8A, (byte) 0xFF, 0};
+        for (int round = 0; round < 200; round++) {
+            byte[] bytes = new byte[random.nextInt(33)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = random.nextInt(4) == 0
+                        ? alphabet[random.nextInt(alphabet.length)] : (byte) random.nextInt(256);
+            }
+            assertAllRanges(bytes);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.jerry.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 哈希时间轮测试
+ * 以手动推进的时间驱动时间轮，不依赖真实的时间流逝
+ */
+public class TimerWheelTest {
+
+    private static final long TICK = TimeUnit.MILLISECONDS.toNanos(1000);
+
+    private TimerWheel<String> wheel;
+
+    /**
+     * 时间轮创建后的时间(纳秒)
+     */
+    private long start;
+
+    /**
+     * 当前时间(纳秒)
+     */
+    private long now;
+
+    private List<String> fired;
+
+    @Before
+    public void setUp() {
+        wheel = new TimerWheel<>(1000, 8);
+        start = System.nanoTime();
+        now = start;
+        fired = new ArrayList<>();
+    }
+
+    /**
+     * 以四分之一刻度为步长推进时间轮至指定时间
+     */
+    private void advanceTo(long time) {
+        while (now - time < 0) {
+            now = Math.min(now + TICK / 4, time);
+            wheel.advance(now, fired::add);
+        }
+    }
+
+    @Test
+    public void timerExpiresWithinOneTickAfterDeadline() {
+        for (int ticks = 0; ticks < 20; ticks++) {
+            setUp();
+            long deadline = start + ticks * TICK + TICK / 3;
+            wheel.schedule(new TimerWheel.Timeout<>("a"), deadline);
+            long firedAt = -1;
+            while (firedAt == -1 && now - (deadline + 2 * TICK) < 0) {
+                advanceTo(now + TICK / 4);
+                if (!fired.isEmpty()) {
+                    firedAt = now;
+                }
+            }
+            //超过一圈的期限会被截断，只验证一圈以内的期限
+            if (ticks < 7) {
+                assertTrue("fired before deadline at " + ticks, firedAt - deadline >= 0);
+                assertTrue("fired too late at " + ticks, firedAt - (deadline + TICK) <= 0);
+            } else {
+                assertTrue(firedAt != -1 && firedAt - deadline < 0);
+            }
+            assertEquals(1, fired.size());
+        }
+    }
+
+    @Test
+    public void pastDeadlineExpiresOnNextAdvance() {
+        advanceTo(start + 3 * TICK);
+        wheel.schedule(new TimerWheel.Timeout<>("a"), start);
+        advanceTo(now + TICK);
+        assertEquals(1, fired.size());
+    }
+
+    @Test
+    public void farDeadlineIsRecheckedUntilDue() {
+        long deadline = start + 30 * TICK;
+        TimerWheel.Timeout<String> timeout = new TimerWheel.Timeout<>("far");
+        int[] rechecks = {0};
+        long[] expiredAt = {-1};
+        wheel.schedule(timeout, deadline);
+        while (expiredAt[0] == -1 && now - (deadline + 2 * TICK) < 0) {
+            now += TICK / 4;
+            wheel.advance(now, name -> {
+                //与连接器相同，未到实际期限时按实际期限重新添加
+                if (now - deadline < 0) {
+                    rechecks[0]++;
+                    wheel.schedule(timeout, deadline);
+                } else {
+                    expiredAt[0] = now;
+                }
+            });
+        }
+        assertTrue(rechecks[0] >= 3);
+        assertTrue(expiredAt[0] - deadline >= 0);
+        assertTrue(expiredAt[0] - (deadline + TICK) <= 0);
+    }
+
+    @Test
+    public void cancelledTimerDoesNotExpire() {
+        TimerWheel.Timeout<String> timeout = new TimerWheel.Timeout<>("a");
+        wheel.schedule(timeout, start + TICK);
+        assertTrue(timeout.isScheduled());
+        wheel.cancel(timeout);
+        assertFalse(timeout.isScheduled());
+        wheel.cancel(timeout);
+        advanceTo(start + 10 * TICK);
+        assertTrue(fired.isEmpty());
+    }
+
+    @Test
+    public void rescheduleMovesTimer() {
+        TimerWheel.Timeout<String> timeout = new TimerWheel.Timeout<>("a");
+        wheel.schedule(timeout, start + TICK);
+        wheel.schedule(timeout, start + 5 * TICK);
+        advanceTo(start + 4 * TICK);
+        assertTrue(fired.isEmpty());
+        advanceTo(start + 7 * TICK);
+        assertEquals(1, fired.size());
+        assertFalse(timeout.isScheduled());
+    }
+
+    @Test
+    public void timersInSameSlotExpireTogether() {
+        //同一刻度的定时器落在同一个槽中，一次推进全部到期
+        wheel.schedule(new TimerWheel.Timeout<>("a"), start + 2 * TICK);
+        wheel.schedule(new TimerWheel.Timeout<>("b"), start + 2 * TICK);
+        wheel.schedule(new TimerWheel.Timeout<>("c"), start + 2 * TICK + TICK / 2);
+        TimerWheel.Timeout<String> later = new TimerWheel.Timeout<>("later");
+        wheel.schedule(later, start + 9 * TICK);
+        advanceTo(start + 4 * TICK);
+        assertEquals(3, fired.size());
+        assertTrue(fired.containsAll(Arrays.asList("a", "b", "c")));
+        assertTrue(later.isScheduled());
+        advanceTo(start + 11 * TICK);
+        assertEquals("later", fired.get(3));
+    }
+
+    @Test
+    public void handlerMayRescheduleDuringAdvance() {
+        List<TimerWheel.Timeout<String>> timeouts = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            TimerWheel.Timeout<String> timeout = new TimerWheel.Timeout<>("t" + i);
+            timeouts.add(timeout);
+            wheel.schedule(timeout, start + TICK);
+        }
+        advanceTo(start + 3 * TICK);
+        assertEquals(4, fired.size());
+        for (TimerWheel.Timeout<String> timeout : timeouts) {
+            wheel.schedule(timeout, now + TICK);
+        }
+        int[] count = {0};
+        int expired = wheel.advance(now + 3 * TICK, name -> {
+            count[0]++;
+            wheel.schedule(timeouts.get(Integer.parseInt(name.substring(1))), now + 10 * TICK);
+        });
+        assertEquals(4, expired);
+        assertEquals(4, count[0]);
+        for (TimerWheel.Timeout<String> timeout : timeouts) {
+            assertTrue(timeout.isScheduled());
+        }
+    }
+
+    @Test
+    public void longPauseStillExpiresEveryTimer() {
+        for (int i = 0; i < 8; i++) {
+            wheel.schedule(new TimerWheel.Timeout<>("t" + i), start + i * TICK + TICK / 2);
+        }
+        now = start + 100 * TICK;
+        assertEquals(8, wheel.advance(now, fired::add));
+    }
+
+    @Test
+    public void wheelSizeIsRoundedUpToPowerOfTwo() {
+        TimerWheel<String> wheel = new TimerWheel<>(1000, 5);
+        long start = System.nanoTime();
+        //5个槽向上取整为8个，7个刻度以内的期限不被截断
+        TimerWheel.Timeout<String> timeout = new TimerWheel.Timeout<>("a");
+        wheel.schedule(timeout, start + 6 * TICK + TICK / 2);
+        assertEquals(0, wheel.advance(start + 5 * TICK, fired::add));
+        assertEquals(1, wheel.advance(start + 8 * TICK, fired::add));
+        assertEquals(1000, wheel.tick());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveTick() {
+        new TimerWheel<String>(0, 8);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveWheelSize() {
+        new TimerWheel<String>(1000, 0);
+    }
+}
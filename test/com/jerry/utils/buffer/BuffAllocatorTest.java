@@ -0,0 +1,122 @@
+package com.jerry.utils.buffer;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * 缓冲区池化分配器测试
+ * 每个测试使用独立的分配器，互不影响各自的池和线程本地缓存
+ */
+public class BuffAllocatorTest {
+
+    private static final int MAX_CLASS = 1 << BuffAllocator.MAX_SHIFT;
+
+    @Test
+    public void capacityIsRoundedUpToSizeClass() {
+        BuffAllocator allocator = new BuffAllocator();
+        assertEquals(64, allocator.allocate(0).length);
+        assertEquals(64, allocator.allocate(1).length);
+        assertEquals(64, allocator.allocate(64).length);
+        assertEquals(128, allocator.allocate(65).length);
+        assertEquals(16384, allocator.allocate(10000).length);
+        assertEquals(MAX_CLASS, allocator.allocate(MAX_CLASS).length);
+        //超过最大容量等级时按期望容量分配
+        assertEquals(MAX_CLASS + 1, allocator.allocate(MAX_CLASS + 1).length);
+        assertEquals(4096, allocator.allocateDirect(3000).capacity());
+        try {
+            allocator.allocate(-1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            //期望容量不能为负数
+        }
+    }
+
+    @Test
+    public void releasedBufferIsReusedOnSameThread() {
+        BuffAllocator allocator = new BuffAllocator();
+        byte[] first = allocator.allocate(1000);
+        byte[] second = allocator.allocate(1000);
+        allocator.release(first);
+        allocator.release(second);
+        //本地缓存后进先出
+        assertSame(second, allocator.allocate(1000));
+        assertSame(first, allocator.allocate(600));
+        assertNotSame(first, allocator.allocate(1000));
+
+        ByteBuffer direct = allocator.allocateDirect(100);
+        direct.put((byte) 1);
+        allocator.release(direct);
+        ByteBuffer reused = allocator.allocateDirect(128);
+        assertSame(direct, reused);
+        assertEquals(0, reused.position());
+        assertEquals(128, reused.limit());
+
+        //堆内字节缓冲区归还其底层数组
+        byte[] array = allocator.allocate(256);
+        allocator.release(ByteBuffer.wrap(array));
+        assertSame(array, allocator.allocate(256));
+    }
+
+    @Test
+    public void buffersOutsideSizeClassesAreNotPooled() {
+        BuffAllocator allocator = new BuffAllocator();
+        byte[] odd = new byte[1024 + 1];
+        allocator.release(odd);
+        byte[] large = allocator.allocate(MAX_CLASS + 1);
+        allocator.release(large);
+        assertNotSame(large, allocator.allocate(MAX_CLASS + 1));
+        assertEquals(2048, allocator.allocate(1025).length);
+    }
+
+    @Test
+    public void globalPoolStaysWithinCap() throws InterruptedException {
+        BuffAllocator allocator = new BuffAllocator();
+        int cached = Math.max(1, BuffAllocator.CACHE_BYTES / MAX_CLASS);
+        int pooled = BuffAllocator.POOL_BYTES / MAX_CLASS;
+        int released = cached + pooled + 6;
+        for (int round = 0; round < 2; round++) {
+            Set<byte[]> arrays = releaseOnOtherThread(allocator, released);
+            //当前线程本地缓存为空，只能从全局缓存中复用
+            int reused = 0;
+            for (int i = 0; i < released; i++) {
+                if (arrays.contains(allocator.allocate(MAX_CLASS))) {
+                    reused++;
+                }
+            }
+            //归还线程的本地缓存存满后，其余的存入全局缓存直到上限
+            //第二轮验证取出后计数同步减小，全局缓存可以再次存满
+            assertEquals("round " + round, pooled, reused);
+        }
+    }
+
+    /**
+     * 在另一个线程中分配并归还指定数量的最大容量等级字节数组
+     *
+     * @return 归还的字节数组
+     */
+    private static Set<byte[]> releaseOnOtherThread(BuffAllocator allocator, int count)
+            throws InterruptedException {
+        Set<byte[]> arrays = Collections.newSetFromMap(new IdentityHashMap<>());
+        Thread thread = new Thread(() -> {
+            List<byte[]> list = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                list.add(new byte[MAX_CLASS]);
+            }
+            arrays.addAll(list);
+            for (byte[] array : list) {
+                allocator.release(array);
+            }
+        });
+        thread.start();
+        thread.join();
+        return arrays;
+    }
+}
@@ -0,0 +1,275 @@
+package com.jerry.utils.buffer;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ScatteringByteChannel;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * 分块缓冲区测试
+ * 每个测试使用独立的分配器，以便确认块归还给了分配器
+ */
+public class CompositeBuffTest {
+
+    private static final int CHUNK = 1 << CompositeBuff.DEFAULT_CHUNK_SHIFT;
+
+    private static byte[] pattern(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) ('a' + i % 26);
+        }
+        return bytes;
+    }
+
+    private static byte[] copy(byte[] bytes, int from, int length) {
+        byte[] copy = new byte[length];
+        System.arraycopy(bytes, from, copy, 0, length);
+        return copy;
+    }
+
+    /**
+     * 预先放入当前线程本地缓存的块
+     * 之后从分配器借用的块都来自这些数组，归还后可以再次取出
+     */
+    private static Set<byte[]> seed(BuffAllocator allocator, int size, int count) {
+        Set<byte[]> arrays = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < count; i++) {
+            arrays.add(allocator.allocate(size));
+        }
+        for (byte[] array : arrays) {
+            allocator.release(array);
+        }
+        return arrays;
+    }
+
+    /**
+     * @return 从分配器重新取出的预置块数量
+     */
+    private static int reclaim(BuffAllocator allocator, Set<byte[]> arrays, int size) {
+        int count = 0;
+        while (arrays.contains(allocator.allocate(size))) {
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void dataSpansChunkBoundaries() {
+        CompositeBuff buff = new CompositeBuff(new BuffAllocator());
+        byte[] bytes = pattern(CHUNK * 2 + 100);
+        //分多次写入，写入的范围跨越块边界
+        assertEquals(CHUNK - 10, buff.write(ByteBuffer.wrap(bytes, 0, CHUNK - 10)));
+        assertEquals(CHUNK + 20, buff.write(ByteBuffer.wrap(bytes, CHUNK - 10, CHUNK + 20)));
+        assertEquals(90, buff.write(ByteBuffer.wrap(bytes, CHUNK * 2 + 10, 90)));
+        assertEquals(bytes.length, buff.readableBytes());
+        assertEquals(CHUNK * 3, buff.capacity());
+        assertArrayEquals(bytes, buff.array());
+        for (int i : new int[]{0, CHUNK - 1, CHUNK, CHUNK * 2 - 1, CHUNK * 2, bytes.length - 1}) {
+            assertEquals(bytes[i], buff.get(i));
+        }
+        assertArrayEquals(copy(bytes, CHUNK - 5, 10), buff.array(CHUNK - 5, 10));
+        assertArrayEquals(copy(bytes, 1, CHUNK * 2), buff.array(1, CHUNK * 2));
+
+        //丢弃后首块偏移量不为零，按索引访问仍然正确
+        buff.discard(CHUNK + 7);
+        int remaining = bytes.length - CHUNK - 7;
+        assertEquals(remaining, buff.readableBytes());
+        assertArrayEquals(copy(bytes, CHUNK + 7, remaining), buff.array());
+        assertEquals(bytes[CHUNK * 2], buff.get(CHUNK - 7));
+        buff.write(ByteBuffer.wrap(bytes, 0, CHUNK));
+        assertArrayEquals(copy(bytes, 0, CHUNK), buff.array(remaining, CHUNK));
+    }
+
+    @Test
+    public void indexOfAcrossChunkSplit() {
+        CompositeBuff buff = new CompositeBuff(new BuffAllocator());
+        byte[] bytes = pattern(CHUNK * 3);
+        int[] marks = {CHUNK - 1, CHUNK, CHUNK * 2 + 3};
+        for (int mark : marks) {
+            bytes[mark] = '\n';
+        }
+        buff.write(ByteBuffer.wrap(bytes));
+        assertEquals(CHUNK - 1, buff.indexOf(0, bytes.length, (byte) '\n'));
+        assertEquals(CHUNK, buff.indexOf(CHUNK, bytes.length, (byte) '\n'));
+        assertEquals(CHUNK * 2 + 3, buff.indexOf(CHUNK + 1, bytes.length, (byte) '\n'));
+        assertEquals(-1, buff.indexOf(CHUNK + 1, CHUNK * 2 + 3, (byte) '\n'));
+        assertEquals(-1, buff.indexOf(0, CHUNK - 1, (byte) '\n'));
+        //查找范围的起止位置分别落在相邻块中
+        assertEquals(CHUNK - 1, buff.indexOf(CHUNK - 8, CHUNK + 8, (byte) '\n'));
+        assertEquals(CHUNK * 2 + 3, buff.indexOf(CHUNK * 2 - 5, CHUNK * 2 + 4, (byte) '\n'));
+
+        //首块偏移量不为零时，分隔符落在块边界两侧
+        buff.discard(CHUNK - 4);
+        assertEquals(3, buff.indexOf(0, buff.readableBytes(), (byte) '\n'));
+        assertEquals(4, buff.indexOf(4, buff.readableBytes(), (byte) '\n'));
+        assertEquals(CHUNK + 7, buff.indexOf(5, buff.readableBytes(), (byte) '\n'));
+        assertEquals(-1, buff.indexOf(5, CHUNK + 7, (byte) '\n'));
+    }
+
+    @Test
+    public void scatteringReadStopsAtMaxCapacity() throws Exception {
+        int maxCapacity = 100000;
+        CompositeBuff buff = new CompositeBuff(maxCapacity, new BuffAllocator(), true);
+        byte[] bytes = pattern(300000);
+        ArrayChannel channel = new ArrayChannel(bytes);
+        //期望读取的字节数超过最大块大小，一次分散读取填充多个块
+        assertEquals(maxCapacity, buff.read(channel, 200000));
+        assertTrue(channel.scattered > 1);
+        assertEquals(maxCapacity, buff.readableBytes());
+        assertEquals(maxCapacity, buff.capacity());
+        assertArrayEquals(copy(bytes, 0, maxCapacity), buff.array());
+        //达到最大容量后不再读取
+        assertEquals(0, buff.read(channel, 200000));
+        assertEquals(maxCapacity, channel.position);
+
+        buff.discard(maxCapacity - 10);
+        //继续填充剩余的尾块并追加新块
+        assertEquals(maxCapacity - 10, buff.read(channel, 200000));
+        assertArrayEquals(copy(bytes, maxCapacity - 10, maxCapacity), buff.array());
+    }
+
+    @Test
+    public void scatteringReadAcrossTailChunk() throws Exception {
+        CompositeBuff buff = new CompositeBuff(1000, new BuffAllocator(), false);
+        byte[] bytes = pattern(2000);
+        ArrayChannel channel = new ArrayChannel(bytes);
+        channel.available = 300;
+        //按期望读取的字节数选择512字节的块
+        assertEquals(300, buff.read(channel, 300));
+        assertEquals(512, buff.capacity());
+        channel.available = bytes.length;
+        assertEquals(700, buff.read(channel, 2000));
+        assertEquals(2, channel.scattered);
+        assertEquals(1000, buff.capacity());
+        assertArrayEquals(copy(bytes, 0, 1000), buff.array());
+    }
+
+    @Test
+    public void discardReturnsChunksToAllocator() {
+        BuffAllocator allocator = new BuffAllocator();
+        Set<byte[]> arrays = seed(allocator, CHUNK, 4);
+        CompositeBuff buff = new CompositeBuff(allocator);
+        buff.write(ByteBuffer.wrap(pattern(CHUNK * 3 + 10)));
+        assertEquals(CHUNK * 4, buff.capacity());
+        //完全丢弃的两个块立即归还
+        buff.discard(CHUNK * 2 + 5);
+        assertEquals(CHUNK * 2 - 5, buff.capacity());
+        assertEquals(2, reclaim(allocator, arrays, CHUNK));
+
+        Set<byte[]> more = seed(allocator, CHUNK, 4);
+        buff = new CompositeBuff(allocator);
+        buff.write(ByteBuffer.wrap(pattern(CHUNK + 1)));
+        //全部丢弃等同于释放
+        buff.discard(CHUNK + 1);
+        assertEquals(0, buff.capacity());
+        assertEquals(4, reclaim(allocator, more, CHUNK));
+    }
+
+    @Test
+    public void releaseReturnsEveryChunk() {
+        BuffAllocator allocator = new BuffAllocator();
+        Set<byte[]> arrays = seed(allocator, CHUNK, 3);
+        CompositeBuff buff = new CompositeBuff(allocator);
+        buff.write(ByteBuffer.wrap(pattern(CHUNK * 2 + 1)));
+        buff.release();
+        assertEquals(0, buff.capacity());
+        assertTrue(buff.isEmpty());
+        assertEquals(3, reclaim(allocator, arrays, CHUNK));
+    }
+
+    @Test
+    public void trimReturnsUnfilledChunks() throws Exception {
+        int max = 1 << CompositeBuff.MAX_CHUNK_SHIFT;
+        BuffAllocator allocator = new BuffAllocator();
+        Set<byte[]> arrays = seed(allocator, max, 4);
+        CompositeBuff buff = new CompositeBuff(allocator);
+        ArrayChannel channel = new ArrayChannel(pattern(max * 4));
+        channel.available = 10;
+        //借用四个块分散读取，只有首块读到数据
+        assertEquals(10, buff.read(channel, max * 4));
+        assertEquals(4, channel.scattered);
+        assertEquals(max, buff.capacity());
+        assertEquals(3, reclaim(allocator, arrays, max));
+
+        //读到流末尾时归还全部块
+        Set<byte[]> more = seed(allocator, max, 4);
+        CompositeBuff empty = new CompositeBuff(allocator);
+        assertEquals(-1, empty.read(new ArrayChannel(new byte[0]), max * 4));
+        assertEquals(0, empty.capacity());
+        assertEquals(4, reclaim(allocator, more, max));
+    }
+
+    /**
+     * 从字节数组读取的通道
+     * 记录最近一次分散读取使用的块数
+     */
+    private static final class ArrayChannel implements ScatteringByteChannel {
+
+        private final byte[] bytes;
+
+        private int position = 0;
+
+        /**
+         * 下一次读取最多读取的字节数
+         */
+        private int available = Integer.MAX_VALUE;
+
+        private int scattered = 0;
+
+        ArrayChannel(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) {
+            scattered = length;
+            if (position == bytes.length) {
+                return -1;
+            }
+            long total = 0;
+            for (int i = offset; i < offset + length; i++) {
+                total += fill(dsts[i]);
+            }
+            available = Integer.MAX_VALUE;
+            return total;
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts) {
+            return read(dsts, 0, dsts.length);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) {
+            scattered = 1;
+            if (position == bytes.length) {
+                return -1;
+            }
+            int length = fill(dst);
+            available = Integer.MAX_VALUE;
+            return length;
+        }
+
+        private int fill(ByteBuffer dst) {
+            int length = Math.min(Math.min(dst.remaining(), bytes.length - position), available);
+            dst.put(bytes, position, length);
+            position += length;
+            available -= length;
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}